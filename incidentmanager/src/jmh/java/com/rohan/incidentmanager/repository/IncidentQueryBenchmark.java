@@ -0,0 +1,224 @@
+package com.rohan.incidentmanager.repository;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hot incident / project queries against a database with `incidents`
+ * rows, migrated to V2 (indexed=false) or on to the V3 indexes (indexed=true).
+ * The query plans are printed once per trial. Runs on H2 in MySQL mode by
+ * default; pass -p url=jdbc:mysql://...,user=...,password=... to run it
+ * against an EMPTY scratch MySQL database (it is cleaned first).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IncidentQueryBenchmark {
+
+    private static final String ACTIVE_OF_PROJECT = "select id, created_at from incidents "
+            + "where project_id = ? and acknowledged = false order by created_at desc limit 1";
+    private static final String ALL_ACTIVE = "select i.id, i.project_id, i.created_at from incidents i "
+            + "join projects p on p.id = i.project_id where i.acknowledged = false and i.id > ? order by i.created_at desc";
+    private static final String HISTORY_PAGE = "select id, reason, created_at, acknowledged, escalation_level from incidents "
+            + "where project_id = ? and id < ? and acknowledged = true order by id desc limit 51";
+    private static final String PROJECTS_OF_DEVELOPER = "select p.id, p.project_name, p.last_status from projects p "
+            + "join project_developers d on d.project_id = p.id where d.user_id = ? order by p.id limit 51";
+
+    @Param({"jdbc:h2:mem:incident_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"})
+    public String url;
+
+    @Param({"sa"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    @Param({"1000000"})
+    public int incidents;
+
+    @Param({"5000"})
+    public int projects;
+
+    @Param({"200"})
+    public int developers;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private Connection conn;
+    private PreparedStatement activeOfProject;
+    private PreparedStatement allActive;
+    private PreparedStatement historyPage;
+    private PreparedStatement projectsOfDeveloper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        // the real migrations: V1-V2 first, then fill the tables, then V3 builds its indexes on the full data
+        Flyway schema = Flyway.configure().dataSource(url, user, password).cleanDisabled(false).target("2").load();
+        schema.clean();
+        schema.migrate();
+
+        conn = DriverManager.getConnection(url, user, password);
+        seed();
+        if (indexed) {
+            long start = System.nanoTime();
+            Flyway.configure().dataSource(url, user, password).target("3").load().migrate();
+            System.out.printf("%nV3 indexes built in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        activeOfProject = conn.prepareStatement(ACTIVE_OF_PROJECT);
+        allActive = conn.prepareStatement(ALL_ACTIVE);
+        historyPage = conn.prepareStatement(HISTORY_PAGE);
+        projectsOfDeveloper = conn.prepareStatement(PROJECTS_OF_DEVELOPER);
+
+        explain(ACTIVE_OF_PROJECT, 1L);
+        explain(ALL_ACTIVE, 0L);
+        explain(HISTORY_PAGE, 1L, Long.MAX_VALUE);
+        explain(PROJECTS_OF_DEVELOPER, 1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Benchmark
+    public void activeIncidentOfProject(Blackhole bh) throws SQLException {
+        activeOfProject.setLong(1, randomProject());
+        drain(activeOfProject, bh);
+    }
+
+    @Benchmark
+    public void allActiveIncidents(Blackhole bh) throws SQLException {
+        // a different (always true) bound each time, or H2 hands back its cached result of the last run
+        allActive.setLong(1, -1 - ThreadLocalRandom.current().nextInt(1_000_000));
+        drain(allActive, bh);
+    }
+
+    @Benchmark
+    public void incidentHistoryPage(Blackhole bh) throws SQLException {
+        historyPage.setLong(1, randomProject());
+        historyPage.setLong(2, Long.MAX_VALUE);
+        drain(historyPage, bh);
+    }
+
+    @Benchmark
+    public void projectsOfDeveloper(Blackhole bh) throws SQLException {
+        projectsOfDeveloper.setLong(1, 1 + ThreadLocalRandom.current().nextInt(developers));
+        drain(projectsOfDeveloper, bh);
+    }
+
+    private long randomProject() {
+        return 1 + ThreadLocalRandom.current().nextInt(projects);
+    }
+
+    private void drain(PreparedStatement ps, Blackhole bh) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) bh.consume(rs.getLong(1));
+        }
+    }
+
+    // users 1..developers are developers, the last one leads every project;
+    // every project has 3 developers and incidents / projects closed incidents,
+    // every 10th project also one open incident
+    private void seed() throws SQLException {
+        long start = System.nanoTime();
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "insert into users (id, name, email, role, verified) values (?, ?, ?, ?, true)")) {
+            for (int u = 1; u <= developers + 1; u++) {
+                ps.setLong(1, u);
+                ps.setString(2, "user" + u);
+                ps.setString(3, "user" + u + "@example.com");
+                ps.setString(4, u <= developers ? "DEV" : "LEAD");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "insert into projects (id, project_name, health_url, check_interval_minutes, team_lead_id, last_status) values (?, ?, ?, 1, ?, 'UP')");
+             PreparedStatement dev = conn.prepareStatement("insert into project_developers (project_id, user_id) values (?, ?)")) {
+            for (int p = 1; p <= projects; p++) {
+                ps.setLong(1, p);
+                ps.setString(2, "project" + p);
+                ps.setString(3, "http://127.0.0.1/health/" + p);
+                ps.setLong(4, developers + 1);
+                ps.addBatch();
+                for (int d = 0; d < 3; d++) {
+                    dev.setLong(1, p);
+                    dev.setLong(2, 1 + (p * 3L + d) % developers);
+                    dev.addBatch();
+                }
+            }
+            ps.executeBatch();
+            dev.executeBatch();
+        }
+        LocalDateTime t0 = LocalDateTime.now().minusDays(365);
+        try (PreparedStatement ps = conn.prepareStatement("insert into incidents "
+                + "(project_id, reason, created_at, acknowledged, escalation_level, resolved_at, active_key, version) "
+                + "values (?, ?, ?, ?, ?, ?, ?, 0)")) {
+            int open = 0;
+            for (int i = 0; i < incidents; i++) {
+                long project = 1 + i % projects;
+                // the last round of incidents stays open on every 10th project
+                boolean active = i >= incidents - projects && project % 10 == 0;
+                LocalDateTime created = t0.plusSeconds(i * 30L);
+                ps.setLong(1, project);
+                ps.setString(2, "Health endpoint returned DOWN or timed out (HTTP 503)");
+                ps.setTimestamp(3, Timestamp.valueOf(created));
+                ps.setBoolean(4, !active);
+                ps.setInt(5, i % 4);
+                ps.setTimestamp(6, active ? null : Timestamp.valueOf(created.plusMinutes(5)));
+                if (active) {
+                    ps.setLong(7, project);
+                    open++;
+                } else {
+                    ps.setNull(7, java.sql.Types.BIGINT);
+                }
+                ps.addBatch();
+                if (i % 5000 == 4999) {
+                    ps.executeBatch();
+                    conn.commit();
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+            System.out.printf("%nSeeded %d incidents (%d open) over %d projects in %d ms%n", incidents, open, projects,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        conn.setAutoCommit(true);
+    }
+
+    private void explain(String sql, Object... args) throws SQLException {
+        List<String> lines = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("explain " + sql)) {
+            for (int i = 0; i < args.length; i++) ps.setObject(i + 1, args[i]);
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData md = rs.getMetaData();
+                while (rs.next()) {
+                    StringBuilder row = new StringBuilder();
+                    for (int c = 1; c <= md.getColumnCount(); c++) {
+                        if (md.getColumnCount() > 1) row.append(md.getColumnLabel(c)).append('=');
+                        row.append(rs.getString(c)).append(c < md.getColumnCount() ? " " : "");
+                    }
+                    lines.add(row.toString());
+                }
+            }
+        }
+        System.out.printf("%n[indexed=%s] %s%n  %s%n", indexed, sql, String.join("\n  ", lines));
+    }
+}
@@ -0,0 +1,109 @@
+package com.rohan.incidentmanager.scheduler;
+
+import com.rohan.incidentmanager.entity.Project;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One full probe sweep (ProbeEngine.probeAll) against a local stub health
+ * server. latencyMs is how long the stub takes to answer, failurePercent how
+ * many answers are 503s. The stub spreads projects over several "hosts"
+ * (paths on 127.0.0.1 / localhost) the same way real projects share servers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProbeSweepBenchmark {
+
+    @Param({"200"})
+    public int projects;
+
+    @Param({"0", "20"})
+    public int latencyMs;
+
+    @Param({"0", "10"})
+    public int failurePercent;
+
+    @Param({"64"})
+    public int concurrency;
+
+    private HttpServer server;
+    private ExecutorService serverPool;
+    private ProbeEngine engine;
+    private ProbeHttpClient client;
+    private List<Project> targets;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // without TCP_NODELAY the JDK stub server adds a ~40ms delayed-ACK stall to every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        AtomicLong requests = new AtomicLong();
+        serverPool = Executors.newFixedThreadPool(256);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(serverPool);
+        server.createContext("/health", exchange -> {
+            try {
+                if (latencyMs > 0) Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            boolean fail = requests.incrementAndGet() % 100 < failurePercent;
+            byte[] body = (fail ? "{\"status\":\"DOWN\"}" : "{\"status\":\"UP\"}").getBytes();
+            exchange.sendResponseHeaders(fail ? 503 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        int port = server.getAddress().getPort();
+
+        client = new ProbeHttpClient();
+        ReflectionTestUtils.setField(client, "defaultConnectTimeoutMs", 2000);
+        ReflectionTestUtils.setField(client, "defaultReadTimeoutMs", 2000);
+        ReflectionTestUtils.setField(client, "dnsThreads", concurrency);
+        client.init();
+
+        engine = new ProbeEngine();
+        ReflectionTestUtils.setField(engine, "concurrency", concurrency);
+        ReflectionTestUtils.setField(engine, "perHostConcurrency", concurrency);
+        ReflectionTestUtils.setField(engine, "probeHttpClient", client);
+        ReflectionTestUtils.setField(engine, "meterRegistry", new SimpleMeterRegistry());
+        engine.init();
+
+        targets = new ArrayList<>();
+        String[] hosts = {"127.0.0.1", "localhost"};
+        for (int i = 0; i < projects; i++) {
+            Project p = new Project();
+            p.setId((long) i);
+            p.setProjectName("p" + i);
+            p.setHealthUrl("http://" + hosts[i % hosts.length] + ":" + port + "/health/" + i);
+            targets.add(p);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.shutdown();
+        client.shutdown();
+        server.stop(0);
+        serverPool.shutdownNow();
+    }
+
+    @Benchmark
+    public Map<Long, ProbeResult> sweep() {
+        return engine.probeAll(targets);
+    }
+}
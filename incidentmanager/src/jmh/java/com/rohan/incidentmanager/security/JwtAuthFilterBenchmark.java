@@ -0,0 +1,63 @@
+package com.rohan.incidentmanager.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-request cost of JwtAuthFilter for a valid (cached after the first call) and for a
+// tampered bearer token; verifyOnly is the uncached HMAC check for comparison.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthFilterBenchmark {
+
+    private JwtUtil jwtUtil;
+    private JwtAuthFilter filter;
+    private String validToken;
+    private String badToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "BenchmarkSecretThatIsLongEnoughForHmac256");
+        ReflectionTestUtils.setField(jwtUtil, "expirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", 10_000);
+        ReflectionTestUtils.setField(jwtUtil, "revocations", new TokenRevocationService());
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+        jwtUtil.init();
+        this.jwtUtil = jwtUtil;
+        filter = new JwtAuthFilter(jwtUtil);
+        validToken = jwtUtil.generateToken("dev@example.com", "DEV");
+        badToken = validToken.substring(0, validToken.length() - 2) + "xx";
+    }
+
+    @Benchmark
+    public void validToken(Blackhole bh) throws Exception {
+        run(validToken, bh);
+    }
+
+    @Benchmark
+    public void invalidToken(Blackhole bh) throws Exception {
+        run(badToken, bh);
+    }
+
+    @Benchmark
+    public Object verifyOnly() {
+        return jwtUtil.validate(validToken);
+    }
+
+    private void run(String token, Blackhole bh) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/projects/my");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+}
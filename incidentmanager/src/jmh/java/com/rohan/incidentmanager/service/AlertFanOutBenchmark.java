@@ -0,0 +1,167 @@
+package com.rohan.incidentmanager.service;
+
+import com.rohan.incidentmanager.ai.GroqChatClient;
+import com.rohan.incidentmanager.config.AlertExecutorsConfig;
+import com.rohan.incidentmanager.entity.AlertType;
+import com.rohan.incidentmanager.entity.Incident;
+import com.rohan.incidentmanager.entity.Project;
+import com.rohan.incidentmanager.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of one alert (AlertService.notifyNewIncident) with Groq,
+ * Twilio and the mail outbox insert replaced by stubs that only sleep for
+ * their configured latency (SMTP itself runs later, in MailDeliveryService).
+ * Measures how well AI generation, paging and mail overlap.
+ * stormDigest sends stormProjects new incidents of the same team as one
+ * digest (AlertService.notifyDigest).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AlertFanOutBenchmark {
+
+    @Param({"200"})
+    public int groqLatencyMs;
+
+    @Param({"100"})
+    public int twilioLatencyMs;
+
+    @Param({"5"})
+    public int outboxLatencyMs;
+
+    @Param({"5"})
+    public int developers;
+
+    @Param({"20"})
+    public int stormProjects;
+
+    private AlertService alertService;
+    private VoiceCallService voice;
+    private List<ThreadPoolTaskExecutor> executors;
+    private Project project;
+    private Incident incident;
+    private List<AlertService.DigestItem> storm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GroqChatClient groq = new GroqChatClient() {
+            @Override
+            public String chat(String system, String user) {
+                sleep(groqLatencyMs);
+                return "Check the last deploy and the database connection pool.";
+            }
+        };
+
+        MailDeliveryService mail = new MailDeliveryService() {
+            @Override
+            public void enqueue(List<String> to, List<String> cc, String subject, String body) {
+                sleep(outboxLatencyMs);
+            }
+        };
+
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        voice = new VoiceCallService();
+        ReflectionTestUtils.setField(voice, "accountSid", "AC_bench");
+        ReflectionTestUtils.setField(voice, "authToken", "token");
+        ReflectionTestUtils.setField(voice, "fromNumber", "+15550000000");
+        ReflectionTestUtils.setField(voice, "concurrency", 8);
+        ReflectionTestUtils.setField(voice, "callTimeoutMs", 10_000L);
+        ReflectionTestUtils.setField(voice, "meterRegistry", meters);
+        voice.init();
+        voice.setCallPlacer((to, from, twiml) -> sleep(twilioLatencyMs));
+
+        AlertExecutorsConfig config = new AlertExecutorsConfig();
+        ThreadPoolTaskExecutor ai = config.aiExecutor(4, 200);
+        ThreadPoolTaskExecutor voicePool = config.voiceExecutor(2, 200);
+        ThreadPoolTaskExecutor mailPool = config.mailExecutor(2, 200);
+        executors = List.of(ai, voicePool, mailPool);
+        executors.forEach(ThreadPoolTaskExecutor::initialize);
+
+        alertService = new AlertService();
+        ReflectionTestUtils.setField(alertService, "mailDelivery", mail);
+        ReflectionTestUtils.setField(alertService, "voiceCallService", voice);
+        ReflectionTestUtils.setField(alertService, "groq", groq);
+        ReflectionTestUtils.setField(alertService, "aiExecutor", ai);
+        ReflectionTestUtils.setField(alertService, "voiceExecutor", voicePool);
+        ReflectionTestUtils.setField(alertService, "mailExecutor", mailPool);
+
+        List<User> devs = new ArrayList<>();
+        for (int i = 0; i < developers; i++) {
+            User u = new User();
+            u.setEmail("dev" + i + "@example.com");
+            u.setPhone("+1555000" + String.format("%04d", i));
+            devs.add(u);
+        }
+        User lead = new User();
+        lead.setEmail("lead@example.com");
+        project = new Project();
+        project.setId(1L);
+        project.setProjectName("checkout");
+        project.setHealthUrl("https://checkout.example.com/health");
+        project.setLastStatus("DOWN");
+        project.setTeamLead(lead);
+        project.setDevelopers(devs);
+
+        incident = new Incident();
+        incident.setId(1L);
+        incident.setProject(project);
+        incident.setReason("Health endpoint returned DOWN or timed out (HTTP 503)");
+        incident.setCreatedAt(LocalDateTime.now());
+
+        storm = new ArrayList<>();
+        for (int i = 0; i < stormProjects; i++) {
+            Project sp = new Project();
+            sp.setId(100L + i);
+            sp.setProjectName("service-" + i);
+            sp.setHealthUrl("https://service-" + i + ".example.com/health");
+            sp.setLastStatus("DOWN");
+            sp.setTeamLead(lead);
+            sp.setDevelopers(devs);
+            Incident si = new Incident();
+            si.setId(100L + i);
+            si.setProject(sp);
+            si.setReason(incident.getReason());
+            si.setCreatedAt(incident.getCreatedAt());
+            storm.add(new AlertService.DigestItem(AlertType.NEW_INCIDENT, sp, si, EnumSet.allOf(AlertChannel.class), Set.of()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executors.forEach(ThreadPoolTaskExecutor::shutdown);
+        voice.shutdown();
+    }
+
+    @Benchmark
+    public Set<AlertChannel> newIncident() {
+        // a fresh alert every time: nobody reached yet
+        return alertService.notifyNewIncident(project, incident, EnumSet.allOf(AlertChannel.class), ConcurrentHashMap.newKeySet());
+    }
+
+    @Benchmark
+    public List<Set<AlertChannel>> stormDigest() {
+        return alertService.notifyDigest(storm.stream()
+                .map(it -> new AlertService.DigestItem(it.type(), it.project(), it.incident(), it.channels(), ConcurrentHashMap.<String>newKeySet()))
+                .toList());
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
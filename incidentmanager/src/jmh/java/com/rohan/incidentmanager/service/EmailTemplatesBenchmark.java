@@ -0,0 +1,48 @@
+package com.rohan.incidentmanager.service;
+
+import com.rohan.incidentmanager.entity.Incident;
+import com.rohan.incidentmanager.entity.Project;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Rendering cost of the alert mail subjects and bodies.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EmailTemplatesBenchmark {
+
+    private Project project;
+    private Incident incident;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        project = new Project();
+        project.setProjectName("checkout");
+        project.setHealthUrl("https://checkout.example.com/health");
+        incident = new Incident();
+        incident.setProject(project);
+        incident.setReason("Health endpoint returned DOWN or timed out (HTTP 503)");
+        incident.setCreatedAt(LocalDateTime.now().minusMinutes(12));
+    }
+
+    @Benchmark
+    public void newDown(Blackhole bh) {
+        bh.consume(EmailTemplates.subjectNewDown(project));
+        bh.consume(EmailTemplates.bodyNewDown(project, incident));
+    }
+
+    @Benchmark
+    public void escalationLead(Blackhole bh) {
+        bh.consume(EmailTemplates.subjectEscLead(project));
+        bh.consume(EmailTemplates.bodyEscLead(project, incident));
+    }
+
+    @Benchmark
+    public void resolved(Blackhole bh) {
+        bh.consume(EmailTemplates.subjectResolved(project));
+        bh.consume(EmailTemplates.bodyResolved(project, incident));
+    }
+}
@@ -4,10 +4,15 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.security.Security;
+
 @SpringBootApplication
 @EnableScheduling
 public class IncidentManagerApplication {
 	public static void main(String[] args) {
+		// JVM-wide DNS cache for probe hosts; must be set before the first lookup
+		String dnsTtl = System.getenv().getOrDefault("PROBE_DNS_CACHE_TTL_SECONDS", "60");
+		Security.setProperty("networkaddress.cache.ttl", dnsTtl);
 		SpringApplication.run(IncidentManagerApplication.class, args);
 	}
 }
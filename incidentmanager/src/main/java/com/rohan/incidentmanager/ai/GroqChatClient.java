@@ -1,16 +1,46 @@
 package com.rohan.incidentmanager.ai;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rohan.incidentmanager.util.TtlLruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Component
 public class GroqChatClient {
 
+    public static final String FALLBACK = "Sorry, the AI is unavailable right now.";
+    public static final String NO_ANSWER = "No answer.";
+
     @Value("${ai.groq.apiKey:}")
     private String apiKey;
 
@@ -20,39 +50,327 @@ public class GroqChatClient {
     @Value("${ai.model:llama-3.3-70b-versatile}")
     private String model;
 
-    private final RestTemplate rt = new RestTemplate();
+    @Value("${ai.cache.maxEntries:500}")
+    private int cacheMaxEntries;
+
+    @Value("${ai.cache.ttlSeconds:600}")
+    private long cacheTtlSeconds;
+
+    @Value("${ai.http.connectTimeoutMs:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${ai.http.readTimeoutMs:20000}")
+    private long readTimeoutMs;
+
+    @Value("${ai.retry.maxAttempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${ai.retry.baseDelayMs:250}")
+    private long retryBaseDelayMs;
+
+    @Value("${ai.circuit.failureThreshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${ai.circuit.openMs:30000}")
+    private long circuitOpenMs;
+
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private ObjectMapper objectMapper;
+
+    // one pooled HTTP/2 client for all AI calls: keep-alive connections, no TLS handshake per call
+    private HttpClient httpClient;
+    private RestTemplate rt;
+    private CircuitBreaker breaker;
+
+    private TtlLruCache<String, String> cache;
+    // identical prompts asked at the same time share one upstream call
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter coalesced;
+    private Timer timeToFirstToken;
+    private Counter promptTokens;
+    private Counter completionTokens;
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        rt = new RestTemplate(factory);
+        breaker = new CircuitBreaker(circuitFailureThreshold, circuitOpenMs);
+
+        cache = new TtlLruCache<>(cacheMaxEntries);
+        hits = meterRegistry.counter("ai.cache.requests", "result", "hit");
+        misses = meterRegistry.counter("ai.cache.requests", "result", "miss");
+        coalesced = meterRegistry.counter("ai.cache.requests", "result", "coalesced");
+        meterRegistry.gauge("ai.cache.size", cache, TtlLruCache::size);
+        timeToFirstToken = meterRegistry.timer("ai.chat.ttft");
+        promptTokens = meterRegistry.counter("ai.tokens", "type", "prompt");
+        completionTokens = meterRegistry.counter("ai.tokens", "type", "completion");
+        meterRegistry.gauge("ai.circuit.open", breaker, b -> b.getState() == CircuitBreaker.State.CLOSED ? 0 : 1);
+    }
 
     public String chat(String system, String user) {
+        String key = cacheKey(system, user);
+        String cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            // another caller may have filled the cache between our lookup and taking the lead
+            String out = cache.get(key);
+            if (out != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                out = callApi(system, user);
+                if (isCacheable(out)) cache.put(key, out, cacheTtlSeconds * 1000);
+            }
+            mine.complete(out);
+            return out;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Retries transient failures with jittered exponential backoff; an open circuit answers with FALLBACK at once.
+    private String callApi(String system, String user) {
+        if (!breaker.allowRequest()) return FALLBACK;
+
+        RuntimeException last = null;
+        for (int attempt = 1; attempt <= Math.max(1, retryMaxAttempts); attempt++) {
+            try {
+                String out = post(system, user);
+                breaker.recordSuccess();
+                return out;
+            } catch (HttpClientErrorException e) {
+                // 4xx won't fix itself, except rate limiting
+                if (e.getStatusCode().value() != 429) {
+                    breaker.recordSuccess();
+                    System.err.println("Groq request rejected status=" + e.getStatusCode().value());
+                    return FALLBACK;
+                }
+                last = e;
+            } catch (RestClientException e) {
+                last = e;
+            }
+            if (attempt < retryMaxAttempts && !sleepBackoff(attempt)) break;
+        }
+        breaker.recordFailure();
+        System.err.println("Groq call failed after retries err=" + (last == null ? "" : last.getMessage()));
+        return FALLBACK;
+    }
+
+    // full jitter: random delay in [0, base * 2^(attempt-1)]
+    private boolean sleepBackoff(int attempt) {
+        long cap = retryBaseDelayMs << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+            return true;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private String post(String system, String user) {
         String url = baseUrl + "/chat/completions";
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setBearerAuth(apiKey);
 
-        Map<String, Object> body = Map.of(
+        // one timing per HTTP attempt; retries and backoff sleeps are not included
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        ResponseEntity<Map> resp;
+        try {
+            resp = rt.postForEntity(url, new HttpEntity<>(requestBody(system, user, false), headers), Map.class);
+            if (resp.getStatusCode().is2xxSuccessful() && resp.getBody() != null) outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer("ai.chat.latency", "mode", "blocking", "outcome", outcome));
+        }
+        if (!"success".equals(outcome)) {
+            return FALLBACK;
+        }
+        countTokens(resp.getBody().get("usage"));
+        try {
+            List choices = (List) resp.getBody().get("choices");
+            if (choices == null || choices.isEmpty()) return NO_ANSWER;
+            Map first = (Map) choices.get(0);
+            Map msg = (Map) first.get("message");
+            Object content = msg.get("content");
+            return content == null ? NO_ANSWER : content.toString().trim();
+        } catch (Exception e) {
+            return NO_ANSWER;
+        }
+    }
+
+    private void countTokens(Object usage) {
+        if (!(usage instanceof Map<?, ?> u)) return;
+        if (u.get("prompt_tokens") instanceof Number n) promptTokens.increment(n.doubleValue());
+        if (u.get("completion_tokens") instanceof Number n) completionTokens.increment(n.doubleValue());
+    }
+
+    private Map<String, Object> requestBody(String system, String user, boolean stream) {
+        return Map.of(
                 "model", model,
                 "temperature", 0.2,
                 "max_completion_tokens", 512,
-                "stream", false,
+                "stream", stream,
                 "messages", List.of(
                         Map.of("role", "system", "content", system == null ? "" : system),
                         Map.of("role", "user", "content", user == null ? "" : user)
                 )
         );
+    }
 
-        ResponseEntity<Map> resp = rt.postForEntity(url, new HttpEntity<>(body, headers), Map.class);
-        if (!resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
-            return "Sorry, the AI is unavailable right now.";
+    /**
+     * Streams the completion token by token. The request runs on the HTTP
+     * client's own threads, so the caller returns immediately; onToken is called
+     * for every content delta and the future completes when the stream ends.
+     * Cached answers and open-circuit fallbacks arrive as a single token.
+     */
+    public CompletableFuture<Void> chatStream(String system, String user, Consumer<String> onToken) {
+        String key = cacheKey(system, user);
+        String cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            onToken.accept(cached);
+            return CompletableFuture.completedFuture(null);
         }
+        HttpRequest request;
         try {
-            List choices = (List) resp.getBody().get("choices");
-            if (choices == null || choices.isEmpty()) return "No answer.";
-            Map first = (Map) choices.get(0);
-            Map msg = (Map) first.get("message");
-            Object content = msg.get("content");
-            return content == null ? "No answer." : content.toString().trim();
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/chat/completions"))
+                    .timeout(Duration.ofMillis(readTimeoutMs))
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "text/event-stream")
+                    .header("Authorization", "Bearer " + apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(requestBody(system, user, true))))
+                    .build();
+        } catch (Exception e) {
+            onToken.accept(FALLBACK);
+            return CompletableFuture.completedFuture(null);
+        }
+        // only after the request is built: a half-open trial must always end in recordSuccess/recordFailure
+        if (!breaker.allowRequest()) {
+            onToken.accept(FALLBACK);
+            return CompletableFuture.completedFuture(null);
+        }
+        misses.increment();
+
+        long start = System.nanoTime();
+        StringBuilder answer = new StringBuilder();
+        AtomicBoolean first = new AtomicBoolean(true);
+        Consumer<String> collect = token -> {
+            if (first.compareAndSet(true, false)) {
+                timeToFirstToken.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            answer.append(token);
+            onToken.accept(token);
+        };
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(new SseLineSubscriber(collect)))
+                .handle((resp, ex) -> {
+                    boolean ok = ex == null && resp.statusCode() / 100 == 2;
+                    meterRegistry.timer("ai.chat.latency", "mode", "stream", "outcome", ok ? "success" : "error")
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    if (ok) {
+                        breaker.recordSuccess();
+                        String full = answer.toString().trim();
+                        if (isCacheable(full)) cache.put(key, full, cacheTtlSeconds * 1000);
+                    } else {
+                        // 4xx won't fix itself, except rate limiting; same as callApi
+                        if (ex != null || resp.statusCode() >= 500 || resp.statusCode() == 429) breaker.recordFailure();
+                        else breaker.recordSuccess();
+                        System.err.println("Groq stream failed " + (ex != null ? "err=" + ex.getMessage() : "status=" + resp.statusCode()));
+                    }
+                    if (answer.length() == 0) onToken.accept(ok ? NO_ANSWER : FALLBACK);
+                    return null;
+                });
+    }
+
+    // Parses OpenAI-style SSE lines ("data: {json}") and forwards choices[0].delta.content.
+    private class SseLineSubscriber implements Flow.Subscriber<String> {
+        private final Consumer<String> onToken;
+
+        SseLineSubscriber(Consumer<String> onToken) {
+            this.onToken = onToken;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:")) return;
+            String data = line.substring(5).trim();
+            if (data.isEmpty() || "[DONE]".equals(data)) return;
+            try {
+                JsonNode chunk = objectMapper.readTree(data);
+                JsonNode content = chunk.path("choices").path(0).path("delta").path("content");
+                if (content.isTextual() && !content.asText().isEmpty()) onToken.accept(content.asText());
+                // the last chunk carries usage, top-level (OpenAI style) or under x_groq
+                JsonNode usage = chunk.has("usage") ? chunk.get("usage") : chunk.path("x_groq").path("usage");
+                if (usage.isObject()) countTokens(objectMapper.convertValue(usage, Map.class));
+            } catch (Exception e) {
+                // skip malformed chunk
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    // don't pin fallback answers in the cache
+    private boolean isCacheable(String out) {
+        return out != null && !out.isBlank() && !isFallback(out);
+    }
+
+    public static boolean isFallback(String out) {
+        return NO_ANSWER.equalsIgnoreCase(out) || FALLBACK.equals(out);
+    }
+
+    // sha-256 over whitespace-normalized (system, user, model)
+    private String cacheKey(String system, String user) {
+        String raw = normalize(system) + '\u0000' + normalize(user) + '\u0000' + model;
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(raw.getBytes(StandardCharsets.UTF_8)));
         } catch (Exception e) {
-            return "No answer.";
+            return raw;
         }
     }
+
+    private String normalize(String s) {
+        return s == null ? "" : s.trim().replaceAll("\\s+", " ");
+    }
 }
@@ -0,0 +1,47 @@
+package com.rohan.incidentmanager.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * One bounded pool per notification channel so a slow LLM, Twilio or SMTP
+ * server only backs up its own queue. When a queue is full the submitting
+ * alert worker runs the task itself, which slows intake instead of dropping work.
+ */
+@Configuration
+public class AlertExecutorsConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor aiExecutor(@Value("${alerts.ai.threads:4}") int threads,
+                                             @Value("${alerts.ai.queueCapacity:200}") int queueCapacity) {
+        return executor("alert-ai-", threads, queueCapacity);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor voiceExecutor(@Value("${alerts.voice.threads:2}") int threads,
+                                                @Value("${alerts.voice.queueCapacity:200}") int queueCapacity) {
+        return executor("alert-voice-", threads, queueCapacity);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor mailExecutor(@Value("${alerts.mail.threads:2}") int threads,
+                                               @Value("${alerts.mail.queueCapacity:200}") int queueCapacity) {
+        return executor("alert-mail-", threads, queueCapacity);
+    }
+
+    private ThreadPoolTaskExecutor executor(String prefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+        ex.setThreadNamePrefix(prefix);
+        ex.setCorePoolSize(threads);
+        ex.setMaxPoolSize(threads);
+        ex.setQueueCapacity(queueCapacity);
+        ex.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        ex.setWaitForTasksToCompleteOnShutdown(true);
+        ex.setAwaitTerminationSeconds(10);
+        return ex;
+    }
+}
@@ -4,6 +4,7 @@ import com.rohan.incidentmanager.dto.LoginRequest;
 import com.rohan.incidentmanager.dto.RegisterRequest;
 import com.rohan.incidentmanager.entity.User;
 import com.rohan.incidentmanager.repository.UserRepository;
+import com.rohan.incidentmanager.security.JwtUtil;
 import com.rohan.incidentmanager.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +21,7 @@ public class AuthController {
 
     @Autowired private AuthService authService;
     @Autowired private UserRepository userRepository;
+    @Autowired private JwtUtil jwtUtil;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest req, Authentication authentication) {
@@ -43,6 +45,18 @@ public class AuthController {
         }
     }
 
+    // Revokes the bearer token on every node; the client should drop it as well.
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String header) {
+        if (header == null || !header.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body("Missing bearer token");
+        }
+        if (!jwtUtil.revoke(header.substring(7))) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+        return ResponseEntity.ok("Logged out");
+    }
+
     /**
      * UPDATED to handle potential null values in the User object.
      */
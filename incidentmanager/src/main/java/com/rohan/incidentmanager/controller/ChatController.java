@@ -1,7 +1,10 @@
 package com.rohan.incidentmanager.controller;
 
 import com.rohan.incidentmanager.ai.GroqChatClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
 
@@ -12,6 +15,9 @@ public class ChatController {
 
     private final GroqChatClient client;
 
+    @Value("${ai.stream.timeoutMs:60000}")
+    private long streamTimeoutMs;
+
     public ChatController(GroqChatClient client) {
         this.client = client;
     }
@@ -24,4 +30,28 @@ public class ChatController {
         String answer = client.chat(system, user);
         return Map.of("answer", answer);
     }
+
+    // Streaming variant: POST /api/chat/stream, same body; answers with SSE "token" events ({"t": "..."}) and a final "done".
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestBody Map<String, String> body) {
+        String system = body.getOrDefault("system", "You are a helpful backend/devops assistant. Answer briefly with clear steps.");
+        String user = body.getOrDefault("q", "");
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        client.chatStream(system, user, token -> {
+            try {
+                // JSON payload so leading spaces in tokens survive SSE parsing
+                emitter.send(SseEmitter.event().name("token").data(Map.of("t", token), MediaType.APPLICATION_JSON));
+            } catch (Exception e) {
+                // client went away; the rest of the stream is dropped
+            }
+        }).whenComplete((v, ex) -> {
+            try {
+                emitter.send(SseEmitter.event().name("done").data(""));
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
 }
@@ -5,12 +5,15 @@ import com.rohan.incidentmanager.entity.Incident;
 import com.rohan.incidentmanager.entity.Project;
 import com.rohan.incidentmanager.repository.ProjectRepository;
 import com.rohan.incidentmanager.service.IncidentService;
+import com.rohan.incidentmanager.service.ProbeHistoryService;
 import com.rohan.incidentmanager.service.ProjectService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,9 +22,12 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class ProjectController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired private ProjectService projectService;
     @Autowired private ProjectRepository projectRepository;
     @Autowired private IncidentService incidentService;
+    @Autowired private ProbeHistoryService historyService;
 
     @PostMapping("/create")
     public ResponseEntity<?> create(@RequestBody ProjectRequestDTO dto, Authentication authentication) {
@@ -43,6 +49,18 @@ public class ProjectController {
         }
     }
 
+    // GET /api/projects/my/page?afterId=&size=50 -> {items: [...], next: cursor or null}
+    @GetMapping("/my/page")
+    public ResponseEntity<?> myProjectsPage(@RequestParam(required = false) Long afterId,
+                                            @RequestParam(defaultValue = "50") int size,
+                                            Authentication authentication) {
+        try {
+            return ResponseEntity.ok(projectService.pageForUser(authentication.getName(), afterId, pageSize(size)));
+        } catch (RuntimeException ex) {
+            return ResponseEntity.status(400).body(ex.getMessage());
+        }
+    }
+
     @PostMapping("/{id}/pause")
     public ResponseEntity<?> pause(@PathVariable Long id, @RequestParam Long minutes, @RequestParam(required = false) String reason, Authentication authentication) {
         try {
@@ -76,7 +94,9 @@ public class ProjectController {
         String email = authentication.getName();
         boolean allowed = p.getTeamLead().getEmail().equals(email) || p.getDevelopers().stream().anyMatch(d -> d.getEmail().equals(email));
         if (!allowed) return ResponseEntity.status(403).body("Not allowed to acknowledge");
-        incidentService.acknowledgeIncident(inc.getId());
+        if (!incidentService.acknowledgeIncident(inc.getId())) {
+            return ResponseEntity.badRequest().body("Incident already closed");
+        }
         return ResponseEntity.ok("Incident acknowledged");
     }
 
@@ -86,4 +106,62 @@ public class ProjectController {
         if (p == null) return ResponseEntity.status(404).body("Project not found");
         return ResponseEntity.ok(incidentService.findActiveForProject(p).map(List::of).orElse(java.util.List.of()));
     }
+
+    // GET /api/projects/{id}/incidents/history?status=open|closed|all&from&to&minLevel&beforeId&size=50, newest first
+    @GetMapping("/{id}/incidents/history")
+    public ResponseEntity<?> incidentHistory(@PathVariable Long id,
+                                             @RequestParam(required = false) String status,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                             @RequestParam(required = false) Integer minLevel,
+                                             @RequestParam(required = false) Long beforeId,
+                                             @RequestParam(defaultValue = "50") int size,
+                                             Authentication authentication) {
+        ResponseEntity<?> denied = checkMember(id, authentication);
+        if (denied != null) return denied;
+        try {
+            return ResponseEntity.ok(incidentService.history(id, status, from, to, minLevel, beforeId, pageSize(size)));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // latency/availability rollups; defaults to the last 24h of 1h buckets
+    @GetMapping("/{id}/latency")
+    public ResponseEntity<?> latency(@PathVariable Long id,
+                                     @RequestParam(defaultValue = "1h") String resolution,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                     Authentication authentication) {
+        ResponseEntity<?> denied = checkMember(id, authentication);
+        if (denied != null) return denied;
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        try {
+            return ResponseEntity.ok(historyService.rollups(id, resolution, start, end));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // raw samples still held in memory, newest first
+    @GetMapping("/{id}/latency/recent")
+    public ResponseEntity<?> recentLatency(@PathVariable Long id, @RequestParam(defaultValue = "60") int limit,
+                                           Authentication authentication) {
+        ResponseEntity<?> denied = checkMember(id, authentication);
+        if (denied != null) return denied;
+        return ResponseEntity.ok(historyService.recent(id, limit));
+    }
+
+    // 404 for an unknown project, 403 unless the caller is its lead, head or one of its developers; null if allowed
+    private ResponseEntity<?> checkMember(Long id, Authentication authentication) {
+        Project p = projectRepository.findById(id).orElse(null);
+        if (p == null) return ResponseEntity.status(404).body("Project not found");
+        if (!projectService.canView(p, authentication.getName())) return ResponseEntity.status(403).body("Not allowed to view this project");
+        return null;
+    }
+
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
 }
@@ -0,0 +1,24 @@
+package com.rohan.incidentmanager.controller;
+
+import com.rohan.incidentmanager.service.LiveUpdateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/stream")
+public class StreamController {
+
+    @Autowired private LiveUpdateService liveUpdateService;
+
+    // GET /api/stream/updates: SSE "status" and "incident" events for the caller's projects, starting with "ready".
+    // Needs the Authorization header, so browsers read it with fetch() rather than EventSource.
+    @GetMapping(value = "/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter updates(Authentication authentication) {
+        return liveUpdateService.subscribe(authentication.getName());
+    }
+}
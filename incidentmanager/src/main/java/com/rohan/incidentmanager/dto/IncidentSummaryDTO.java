@@ -0,0 +1,22 @@
+package com.rohan.incidentmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One incident without its project graph.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IncidentSummaryDTO {
+    private Long id;
+    private Long projectId;
+    private String reason;
+    private LocalDateTime createdAt;
+    private boolean acknowledged;
+    private int escalationLevel;
+    private LocalDateTime lastEscalationAt;
+    private LocalDateTime resolvedAt;
+}
@@ -0,0 +1,14 @@
+package com.rohan.incidentmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// One page of a keyset-paginated list; pass next back as the cursor, null means there is nothing more.
+@Data
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private List<T> items;
+    private Long next;
+}
@@ -11,6 +11,11 @@ public class ProjectRequestDTO {
     private String description;
     private String healthUrl;
     private Integer checkIntervalMinutes;
+    private Integer probeConnectTimeoutMs;
+    private Integer probeTimeoutMs;
+    private Integer escalateLeadAfterMinutes;
+    private Integer escalateCtoAfterMinutes;
+    private Integer incidentRetentionDays;
     private Long teamLeadId;
     private Long headId;
     private List<Long> developerIds;
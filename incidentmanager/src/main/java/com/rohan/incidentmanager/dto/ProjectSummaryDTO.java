@@ -0,0 +1,24 @@
+package com.rohan.incidentmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Dashboard row for a project: no user graphs, only the lead's name and email.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectSummaryDTO {
+    private Long id;
+    private String projectName;
+    private String healthUrl;
+    private Integer checkIntervalMinutes;
+    private String lastStatus;
+    private LocalDateTime lastCheckedAt;
+    private LocalDateTime pausedUntil;
+    private String pauseReason;
+    private String teamLeadName;
+    private String teamLeadEmail;
+}
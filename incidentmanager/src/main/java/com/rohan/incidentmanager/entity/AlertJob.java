@@ -0,0 +1,34 @@
+package com.rohan.incidentmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Durable outbound alert; rows stay PENDING until every channel went out or attempts run out.
+@Data
+@Entity
+@Table(name = "alert_jobs")
+public class AlertJob {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long projectId;
+    private Long incidentId;
+
+    @Enumerated(EnumType.STRING)
+    private AlertType type;
+
+    private String status = "PENDING"; // PENDING / SENT / FAILED
+    private int attempts = 0;
+    private boolean voiceSent = false;
+    private boolean mailSent = false;
+
+    // numbers reached by earlier attempts, comma-separated; a retry only calls the others
+    @Column(length = 4000)
+    private String voicePaged;
+    private String lastError;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,5 @@
+package com.rohan.incidentmanager.entity;
+
+public enum AlertType {
+    NEW_INCIDENT, ESCALATION_LEAD, ESCALATION_CTO, RESOLVED
+}
@@ -0,0 +1,19 @@
+package com.rohan.incidentmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// One running backend instance; a node is live while its heartbeat is fresh.
+@Data
+@Entity
+@Table(name = "backend_nodes")
+public class BackendNode {
+    @Id
+    @Column(length = 100)
+    private String nodeId;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime lastHeartbeat;
+}
@@ -20,5 +20,14 @@ public class Incident {
     private boolean acknowledged = false;
     private int escalationLevel = 0; // 0 initial, 1 dev called, 2 lead called, 3 cto called
     private LocalDateTime lastEscalationAt;
+    private LocalDateTime resolvedAt; // when it stopped being active (recovered or acknowledged)
+
+    // project id while the incident is active, null once closed; the unique index
+    // allows at most one active incident per project no matter how many nodes probe
+    @Column(unique = true)
+    private Long activeKey;
+
+    @Version
+    private long version;
 
    }
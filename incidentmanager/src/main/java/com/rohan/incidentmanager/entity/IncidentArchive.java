@@ -0,0 +1,24 @@
+package com.rohan.incidentmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// A closed incident moved out of incidents once its project's retention passed; same id as before.
+@Data
+@Entity
+@Table(name = "incidents_archive")
+public class IncidentArchive {
+    @Id
+    private Long id;
+
+    private Long projectId;
+    private String reason;
+    private LocalDateTime createdAt;
+    private boolean acknowledged;
+    private int escalationLevel;
+    private LocalDateTime lastEscalationAt;
+    private LocalDateTime resolvedAt;
+    private LocalDateTime archivedAt;
+}
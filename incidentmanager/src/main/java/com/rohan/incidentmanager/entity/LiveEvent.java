@@ -0,0 +1,24 @@
+package com.rohan.incidentmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// A live update relayed to the other backend nodes, whose SSE clients may watch the same project.
+@Data
+@Entity
+@Table(name = "live_events")
+public class LiveEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 100)
+    private String originNode;
+
+    @Column(length = 2000)
+    private String payload;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
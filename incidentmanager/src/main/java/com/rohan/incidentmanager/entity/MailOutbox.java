@@ -0,0 +1,34 @@
+package com.rohan.incidentmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// One outbound mail; PENDING until it went out (SENT) or attempts ran out (FAILED).
+@Data
+@Entity
+@Table(name = "mail_outbox")
+public class MailOutbox {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 2000)
+    private String toAddresses; // comma separated
+    @Column(length = 2000)
+    private String ccAddresses;
+    private String subject;
+    @Column(length = 65535)
+    private String body;
+
+    private String status = "PENDING"; // PENDING / SENT / FAILED
+    private int attempts = 0;
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+    // set by the sender that leased the row until nextAttemptAt
+    @Column(length = 36)
+    private String claimToken;
+    private String lastError;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,37 @@
+package com.rohan.incidentmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Aggregated probe results for one project over one 1m / 1h / 1d bucket.
+@Data
+@Entity
+@Table(name = "probe_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"project_id", "resolution", "bucket_start"}))
+public class ProbeRollup {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Column(length = 4)
+    private String resolution; // 1m / 1h / 1d
+
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    private int samples;
+    private int upSamples;
+    private long p50Ms;
+    private long p95Ms;
+    private long p99Ms;
+    private long avgMs;
+    private long maxMs;
+
+    public double getAvailability() {
+        return samples == 0 ? 0 : (double) upSamples / samples;
+    }
+}
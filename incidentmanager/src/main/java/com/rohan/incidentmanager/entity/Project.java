@@ -2,6 +2,7 @@ package com.rohan.incidentmanager.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -10,6 +11,7 @@ import java.util.List;
 
 @Data
 @Entity
+@DynamicUpdate // only changed columns are written, so pause/resume never clobber probe status
 @Table(name = "projects")
 public class Project {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,6 +21,11 @@ public class Project {
     private String description;
     private String healthUrl;
     private Integer checkIntervalMinutes = 1; // default
+    private Integer probeConnectTimeoutMs; // null -> probe.connectTimeoutMs
+    private Integer probeTimeoutMs;        // null -> probe.readTimeoutMs
+    private Integer escalateLeadAfterMinutes; // null -> escalation.leadMinutes
+    private Integer escalateCtoAfterMinutes;  // null -> escalation.ctoMinutes
+    private Integer incidentRetentionDays;    // null -> incidents.archive.retentionDays, 0 -> never archived
 
     @ManyToOne
     @JoinColumn(name = "team_lead_id")
@@ -0,0 +1,19 @@
+package com.rohan.incidentmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// A logged-out JWT (by SHA-256 of the token); the row can go once the token itself expires.
+@Data
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revokedAt"))
+public class RevokedToken {
+    @Id
+    @Column(length = 64)
+    private String tokenHash;
+
+    private LocalDateTime revokedAt;
+    private LocalDateTime expiresAt;
+}
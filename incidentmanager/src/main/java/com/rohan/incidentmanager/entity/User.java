@@ -1,5 +1,6 @@
 package com.rohan.incidentmanager.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -17,6 +18,7 @@ public class User {
 
     private String phone;
 
+    @JsonIgnore // never serialize the hash with a project or incident
     private String password; // bcrypt hashed
 
     @Enumerated(EnumType.STRING)
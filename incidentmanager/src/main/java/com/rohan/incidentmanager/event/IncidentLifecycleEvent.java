@@ -0,0 +1,16 @@
+package com.rohan.incidentmanager.event;
+
+import com.rohan.incidentmanager.entity.Incident;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published by IncidentService after a transition actually happened (not for lost races).
+@Data
+@AllArgsConstructor
+public class IncidentLifecycleEvent {
+
+    public enum Type { OPENED, ESCALATED, CLOSED }
+
+    private Type type;
+    private Incident incident;
+}
@@ -0,0 +1,16 @@
+package com.rohan.incidentmanager.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Published by ProjectStatusStore when a project's confirmed status changes (UP <-> DOWN).
+@Data
+@AllArgsConstructor
+public class ProjectStatusEvent {
+    private Long projectId;
+    private String status;
+    private String previousStatus;
+    private LocalDateTime checkedAt;
+}
@@ -0,0 +1,14 @@
+package com.rohan.incidentmanager.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Published by ShardCoordinator when the set of live nodes changed; holders of per-project state
+// drop what this node no longer owns, so it isn't reused if the project comes back later.
+@Data
+@AllArgsConstructor
+public class ShardRebalancedEvent {
+    private List<String> nodes;
+}
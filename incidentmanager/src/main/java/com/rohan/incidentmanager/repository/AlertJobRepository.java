@@ -0,0 +1,11 @@
+package com.rohan.incidentmanager.repository;
+
+import com.rohan.incidentmanager.entity.AlertJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface AlertJobRepository extends JpaRepository<AlertJob, Long> {
+    // keyset-paged by id, so recover() can page past jobs of projects other nodes own
+    List<AlertJob> findTop500ByStatusAndIdGreaterThanOrderByIdAsc(String status, Long afterId);
+}
@@ -0,0 +1,35 @@
+package com.rohan.incidentmanager.repository;
+
+import com.rohan.incidentmanager.entity.BackendNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Heartbeats and their cutoffs use the database clock, so clock skew between nodes can't split ownership.
+public interface BackendNodeRepository extends JpaRepository<BackendNode, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "update backend_nodes set last_heartbeat = current_timestamp(6) where node_id = :nodeId", nativeQuery = true)
+    int touch(@Param("nodeId") String nodeId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into backend_nodes (node_id, started_at, last_heartbeat) "
+            + "values (:nodeId, current_timestamp(6), current_timestamp(6))", nativeQuery = true)
+    int register(@Param("nodeId") String nodeId);
+
+    @Query(value = "select node_id from backend_nodes "
+            + "where timestampadd(MICROSECOND, :ttlMicros, last_heartbeat) > current_timestamp(6) order by node_id", nativeQuery = true)
+    List<String> findLiveNodeIds(@Param("ttlMicros") long ttlMicros);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from backend_nodes "
+            + "where timestampadd(MICROSECOND, :ageMicros, last_heartbeat) < current_timestamp(6)", nativeQuery = true)
+    int deleteStale(@Param("ageMicros") long ageMicros);
+}
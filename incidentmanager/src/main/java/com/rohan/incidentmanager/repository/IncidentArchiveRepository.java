@@ -0,0 +1,32 @@
+package com.rohan.incidentmanager.repository;
+
+import com.rohan.incidentmanager.dto.IncidentSummaryDTO;
+import com.rohan.incidentmanager.entity.IncidentArchive;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface IncidentArchiveRepository extends JpaRepository<IncidentArchive, Long> {
+
+    // Same filters as IncidentRepository.findHistory; archived incidents are always closed.
+    @Query("""
+      select new com.rohan.incidentmanager.dto.IncidentSummaryDTO(i.id, i.projectId, i.reason, i.createdAt, i.acknowledged,
+             i.escalationLevel, i.lastEscalationAt, i.resolvedAt)
+      from IncidentArchive i
+      where i.projectId = :projectId and i.id < :beforeId
+        and (:from is null or i.createdAt >= :from)
+        and (:to is null or i.createdAt < :to)
+        and i.escalationLevel >= :minLevel
+      order by i.id desc
+    """)
+    List<IncidentSummaryDTO> findHistory(@Param("projectId") Long projectId,
+                                         @Param("beforeId") long beforeId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("minLevel") int minLevel,
+                                         Limit limit);
+}
@@ -1,12 +1,62 @@
 package com.rohan.incidentmanager.repository;
 
+import com.rohan.incidentmanager.dto.IncidentSummaryDTO;
 import com.rohan.incidentmanager.entity.Incident;
 import com.rohan.incidentmanager.entity.Project;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface IncidentRepository extends JpaRepository<Incident, Long> {
     List<Incident> findByProject(Project project);
     Optional<Incident> findFirstByProjectAndAcknowledgedFalseOrderByCreatedAtDesc(Project project);
+
+    @Query("select i from Incident i join fetch i.project p where i.acknowledged = false order by i.createdAt desc")
+    List<Incident> findAllActive();
+
+    // Incident history of one project, newest first, keyset-paged by id; null filters match everything.
+    @Query("""
+      select new com.rohan.incidentmanager.dto.IncidentSummaryDTO(i.id, i.project.id, i.reason, i.createdAt, i.acknowledged,
+             i.escalationLevel, i.lastEscalationAt, i.resolvedAt)
+      from Incident i
+      where i.project.id = :projectId and i.id < :beforeId
+        and (:acknowledged is null or i.acknowledged = :acknowledged)
+        and (:from is null or i.createdAt >= :from)
+        and (:to is null or i.createdAt < :to)
+        and i.escalationLevel >= :minLevel
+      order by i.id desc
+    """)
+    List<IncidentSummaryDTO> findHistory(@Param("projectId") Long projectId,
+                                         @Param("beforeId") long beforeId,
+                                         @Param("acknowledged") Boolean acknowledged,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("minLevel") int minLevel,
+                                         Limit limit);
+
+    // Conditional transitions: each returns 1 only for the caller that actually moved the incident.
+    @Transactional
+    @Modifying
+    @Query("update Incident i set i.escalationLevel = :level, i.lastEscalationAt = :at, i.version = i.version + 1 " +
+            "where i.id = :id and i.acknowledged = false and i.escalationLevel < :level")
+    int escalate(@Param("id") Long id, @Param("level") int level, @Param("at") LocalDateTime at);
+
+    @Transactional
+    @Modifying
+    @Query("update Incident i set i.acknowledged = true, i.activeKey = null, i.resolvedAt = :at, i.version = i.version + 1 " +
+            "where i.id = :id and i.acknowledged = false")
+    int close(@Param("id") Long id, @Param("at") LocalDateTime at);
+
+    // rows from before active_key existed
+    @Transactional
+    @Modifying
+    @Query("update Incident i set i.activeKey = i.project.id where i.id = :id and i.acknowledged = false and i.activeKey is null")
+    int claimActiveKey(@Param("id") Long id);
 }
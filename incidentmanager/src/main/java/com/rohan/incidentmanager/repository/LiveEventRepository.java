@@ -0,0 +1,20 @@
+package com.rohan.incidentmanager.repository;
+
+import com.rohan.incidentmanager.entity.LiveEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface LiveEventRepository extends JpaRepository<LiveEvent, Long> {
+    List<LiveEvent> findTop500ByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(LocalDateTime since, Long afterId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from LiveEvent e where e.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,47 @@
+package com.rohan.incidentmanager.repository;
+
+import com.rohan.incidentmanager.entity.MailOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    @Query("select m from MailOutbox m where m.status = 'PENDING' and m.nextAttemptAt <= :now order by m.id")
+    List<MailOutbox> findDue(@Param("now") LocalDateTime now, Limit limit);
+
+    List<MailOutbox> findByIdInAndClaimToken(Collection<Long> ids, String claimToken);
+
+    // Leases due rows to one sender until :until; rows another sender leased first are left alone.
+    @Transactional
+    @Modifying
+    @Query("update MailOutbox m set m.claimToken = :token, m.nextAttemptAt = :until " +
+            "where m.id in :ids and m.status = 'PENDING' and m.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("update MailOutbox m set m.status = 'SENT', m.sentAt = :at, m.attempts = m.attempts + 1, m.lastError = null " +
+            "where m.id in :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("at") LocalDateTime at);
+
+    @Transactional
+    @Modifying
+    @Query("update MailOutbox m set m.status = :status, m.attempts = m.attempts + 1, m.nextAttemptAt = :next, " +
+            "m.lastError = :error where m.id = :id")
+    int markFailed(@Param("id") Long id, @Param("status") String status,
+                   @Param("next") LocalDateTime next, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("delete from MailOutbox m where m.status <> 'PENDING' and m.createdAt < :before")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+}
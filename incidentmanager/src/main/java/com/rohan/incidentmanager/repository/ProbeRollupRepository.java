@@ -0,0 +1,12 @@
+package com.rohan.incidentmanager.repository;
+
+import com.rohan.incidentmanager.entity.ProbeRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProbeRollupRepository extends JpaRepository<ProbeRollup, Long> {
+    List<ProbeRollup> findByProjectIdAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+            Long projectId, String resolution, LocalDateTime from, LocalDateTime to);
+}
@@ -1,10 +1,13 @@
 package com.rohan.incidentmanager.repository;
 
+import com.rohan.incidentmanager.dto.ProjectSummaryDTO;
 import com.rohan.incidentmanager.entity.Project;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +15,25 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     List<Project> findByTeamLead_Email(String email);
     List<Project> findByDevelopers_Id(Long developerId);
 
+    // keyset pages of dashboard rows (id > afterId), same membership rules as the two finders above
+    @Query("""
+      select new com.rohan.incidentmanager.dto.ProjectSummaryDTO(p.id, p.projectName, p.healthUrl, p.checkIntervalMinutes,
+             p.lastStatus, p.lastCheckedAt, p.pausedUntil, p.pauseReason, tl.name, tl.email)
+      from Project p join p.teamLead tl
+      where tl.email = :email and p.id > :afterId
+      order by p.id
+    """)
+    List<ProjectSummaryDTO> findSummariesByTeamLead(@Param("email") String email, @Param("afterId") long afterId, Limit limit);
+
+    @Query("""
+      select new com.rohan.incidentmanager.dto.ProjectSummaryDTO(p.id, p.projectName, p.healthUrl, p.checkIntervalMinutes,
+             p.lastStatus, p.lastCheckedAt, p.pausedUntil, p.pauseReason, tl.name, tl.email)
+      from Project p join p.developers d left join p.teamLead tl
+      where d.id = :developerId and p.id > :afterId
+      order by p.id
+    """)
+    List<ProjectSummaryDTO> findSummariesByDeveloper(@Param("developerId") Long developerId, @Param("afterId") long afterId, Limit limit);
+
     @Query("""
       select p from Project p
       left join fetch p.developers d
@@ -20,4 +42,21 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
       where p.id = :id
     """)
     Optional<Project> findWithRecipientsById(@Param("id") Long id);
+
+    @Query("""
+      select distinct p from Project p
+      left join fetch p.developers d
+      left join fetch p.teamLead tl
+      left join fetch p.head h
+      where p.id in :ids
+    """)
+    List<Project> findWithRecipientsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // scheduler tick: load every project plus its eager to-one users in a single query
+    @Query("""
+      select p from Project p
+      left join fetch p.teamLead tl
+      left join fetch p.head h
+    """)
+    List<Project> findAllForProbing();
 }
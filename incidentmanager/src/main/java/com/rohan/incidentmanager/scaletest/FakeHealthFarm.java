@@ -0,0 +1,114 @@
+package com.rohan.incidentmanager.scaletest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-process stand-in for thousands of monitored services (and for Groq), so
+ * the scale test runs offline. GET /health/{n} answers after latencyMs plus
+ * up to latencyJitterMs; projects with n % 100 < downPercent always return
+ * 503, the rest fail randomly failurePercent of the time.
+ * POST /v1/chat/completions returns a canned answer after aiLatencyMs.
+ */
+@Component
+@Profile("scaletest")
+public class FakeHealthFarm {
+
+    @Value("${scaletest.farm.port:18990}")
+    private int port;
+
+    @Value("${scaletest.farm.threads:200}")
+    private int threads;
+
+    @Value("${scaletest.farm.latencyMs:50}")
+    private int latencyMs;
+
+    @Value("${scaletest.farm.latencyJitterMs:50}")
+    private int latencyJitterMs;
+
+    @Value("${scaletest.farm.failurePercent:1}")
+    private int failurePercent;
+
+    @Value("${scaletest.farm.downPercent:1}")
+    private int downPercent;
+
+    @Value("${scaletest.farm.aiLatencyMs:300}")
+    private int aiLatencyMs;
+
+    private HttpServer server;
+    private ExecutorService pool;
+
+    @PostConstruct
+    public void start() throws IOException {
+        // the JDK server otherwise stalls every response on delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "fake-farm");
+            t.setDaemon(true);
+            return t;
+        });
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 4096);
+        server.setExecutor(pool);
+        server.createContext("/health/", this::health);
+        server.createContext("/v1/chat/completions", this::chat);
+        server.start();
+        System.out.println("Fake health farm listening on 127.0.0.1:" + port);
+    }
+
+    @PreDestroy
+    public void stop() {
+        server.stop(0);
+        pool.shutdownNow();
+    }
+
+    private void health(HttpExchange ex) throws IOException {
+        long n;
+        try {
+            n = Long.parseLong(ex.getRequestURI().getPath().substring("/health/".length()));
+        } catch (NumberFormatException e) {
+            n = 0;
+        }
+        sleep(latencyMs + (latencyJitterMs > 0 ? ThreadLocalRandom.current().nextInt(latencyJitterMs + 1) : 0));
+        boolean down = n % 100 < downPercent || ThreadLocalRandom.current().nextInt(100) < failurePercent;
+        respond(ex, down ? 503 : 200, down ? "{\"status\":\"DOWN\"}" : "{\"status\":\"UP\"}");
+    }
+
+    private void chat(HttpExchange ex) throws IOException {
+        ex.getRequestBody().readAllBytes();
+        sleep(aiLatencyMs);
+        respond(ex, 200, """
+                {"choices":[{"message":{"role":"assistant","content":"Check the latest deploy and the upstream dependencies."}}],
+                 "usage":{"prompt_tokens":120,"completion_tokens":12,"total_tokens":132}}""");
+    }
+
+    private void respond(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void sleep(long ms) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
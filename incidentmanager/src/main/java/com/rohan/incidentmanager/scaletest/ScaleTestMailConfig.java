@@ -0,0 +1,53 @@
+package com.rohan.incidentmanager.scaletest;
+
+import com.rohan.incidentmanager.service.MailDeliveryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// SMTP connections that only count messages and wait like a real handshake / send would.
+@Configuration
+@Profile("scaletest")
+public class ScaleTestMailConfig {
+
+    @Bean
+    public MailDeliveryService.SmtpConnector smtpConnector(@Value("${scaletest.smtpConnectMs:300}") long smtpConnectMs,
+                                                           @Value("${scaletest.smtpLatencyMs:100}") long smtpLatencyMs,
+                                                           MeterRegistry meterRegistry) {
+        Counter sent = meterRegistry.counter("scaletest.mail.sent");
+        return () -> {
+            sleep(smtpConnectMs);
+            return new MailDeliveryService.SmtpConnection() {
+                private boolean open = true;
+
+                @Override
+                public void send(MimeMessage message) {
+                    sleep(smtpLatencyMs);
+                    sent.increment();
+                }
+
+                @Override
+                public boolean isConnected() {
+                    return open;
+                }
+
+                @Override
+                public void close() {
+                    open = false;
+                }
+            };
+        };
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
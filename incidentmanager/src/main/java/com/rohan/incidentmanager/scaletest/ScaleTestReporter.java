@@ -0,0 +1,67 @@
+package com.rohan.incidentmanager.scaletest;
+
+import com.rohan.incidentmanager.service.AlertDispatcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints one line per scaletest.reportMs with what changed since the last
+ * line: sweeps and their average/max duration, probes per second, JDBC
+ * statements Hibernate prepared per sweep, heap in use, alerts delivered and
+ * their average lag (job created -> all channels sent), and queue depth.
+ */
+@Component
+@Profile("scaletest")
+public class ScaleTestReporter {
+
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private AlertDispatcher alertDispatcher;
+
+    private long lastAt = System.currentTimeMillis();
+    private long lastSweeps, lastStatements, lastAlerts;
+    private double lastSweepMs, lastProbes, lastAlertLagMs;
+
+    @Scheduled(fixedDelayString = "${scaletest.reportMs:10000}", initialDelayString = "${scaletest.reportMs:10000}")
+    public void report() {
+        Timer sweep = meterRegistry.timer("probe.sweep.duration");
+        Counter probes = meterRegistry.counter("probe.probes");
+        Timer alertLag = meterRegistry.timer("alerts.lag");
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long now = System.currentTimeMillis();
+        long sweeps = sweep.count() - lastSweeps;
+        double sweepMs = sweep.totalTime(TimeUnit.MILLISECONDS) - lastSweepMs;
+        double probed = probes.count() - lastProbes;
+        long statements = stats.getPrepareStatementCount() - lastStatements;
+        long alerts = alertLag.count() - lastAlerts;
+        double lagMs = alertLag.totalTime(TimeUnit.MILLISECONDS) - lastAlertLagMs;
+        long heapMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024);
+        double seconds = Math.max(1, now - lastAt) / 1000.0;
+
+        System.out.printf("[scaletest] sweeps=%d avgSweepMs=%.0f maxSweepMs=%.0f probes/s=%.0f dbStatements/sweep=%.1f "
+                        + "heapUsedMb=%d alertsSent=%d avgAlertLagMs=%.0f alertQueue=%d%n",
+                sweeps, sweeps == 0 ? 0 : sweepMs / sweeps, sweep.max(TimeUnit.MILLISECONDS), probed / seconds,
+                sweeps == 0 ? 0 : (double) statements / sweeps, heapMb, alerts, alerts == 0 ? 0 : lagMs / alerts,
+                alertDispatcher.queueDepth());
+
+        lastAt = now;
+        lastSweeps = sweep.count();
+        lastSweepMs = sweep.totalTime(TimeUnit.MILLISECONDS);
+        lastProbes = probes.count();
+        lastStatements = stats.getPrepareStatementCount();
+        lastAlerts = alertLag.count();
+        lastAlertLagMs = alertLag.totalTime(TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,99 @@
+package com.rohan.incidentmanager.scaletest;
+
+import com.rohan.incidentmanager.entity.Project;
+import com.rohan.incidentmanager.entity.Role;
+import com.rohan.incidentmanager.entity.User;
+import com.rohan.incidentmanager.repository.ProjectRepository;
+import com.rohan.incidentmanager.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds one organisation (CTO, lead, scaletest.developers devs) and
+ * scaletest.projects projects pointing at the fake farm. Every user can log
+ * in with password "scaletest" (lead: lead@scaletest.local).
+ */
+@Component
+@Profile("scaletest")
+public class ScaleTestSeeder {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private ProjectRepository projectRepository;
+    @Autowired private PasswordEncoder passwordEncoder;
+
+    @Value("${scaletest.projects:10000}")
+    private int projects;
+
+    @Value("${scaletest.developers:50}")
+    private int developers;
+
+    @Value("${scaletest.developersPerProject:3}")
+    private int developersPerProject;
+
+    @Value("${scaletest.checkIntervalMinutes:1}")
+    private int checkIntervalMinutes;
+
+    @Value("${scaletest.farm.port:18990}")
+    private int farmPort;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (projectRepository.count() > 0) {
+            System.out.println("Scale test: projects already present, not seeding");
+            return;
+        }
+        long started = System.currentTimeMillis();
+        String hash = passwordEncoder.encode("scaletest");
+
+        User cto = userRepository.save(user("cto@scaletest.local", Role.CTO, hash));
+        User lead = userRepository.save(user("lead@scaletest.local", Role.LEAD, hash));
+        List<User> devs = new ArrayList<>();
+        for (int i = 0; i < developers; i++) {
+            devs.add(user("dev" + i + "@scaletest.local", Role.DEV, hash));
+        }
+        devs = userRepository.saveAll(devs);
+
+        List<Project> batch = new ArrayList<>();
+        for (int i = 0; i < projects; i++) {
+            Project p = new Project();
+            p.setProjectName("svc-" + i);
+            p.setHealthUrl("http://127.0.0.1:" + farmPort + "/health/" + i);
+            p.setCheckIntervalMinutes(checkIntervalMinutes);
+            p.setTeamLead(lead);
+            p.setHead(cto);
+            List<User> team = new ArrayList<>();
+            for (int d = 0; d < Math.min(developersPerProject, devs.size()); d++) {
+                team.add(devs.get((i + d) % devs.size()));
+            }
+            p.setDevelopers(team);
+            p.setLastCheckedAt(LocalDateTime.now());
+            batch.add(p);
+            if (batch.size() == 1000) {
+                projectRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        projectRepository.saveAll(batch);
+        System.out.println("Scale test: seeded " + projects + " projects and " + (developers + 2) + " users in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    private User user(String email, Role role, String passwordHash) {
+        User u = new User();
+        u.setName(email.substring(0, email.indexOf('@')));
+        u.setEmail(email);
+        u.setPassword(passwordHash);
+        u.setRole(role);
+        u.setOrganizationName("scaletest");
+        return u;
+    }
+}
@@ -0,0 +1,145 @@
+package com.rohan.incidentmanager.scheduler;
+
+import com.rohan.incidentmanager.entity.AlertType;
+import com.rohan.incidentmanager.entity.Incident;
+import com.rohan.incidentmanager.entity.Project;
+import com.rohan.incidentmanager.event.IncidentLifecycleEvent;
+import com.rohan.incidentmanager.service.AlertDispatcher;
+import com.rohan.incidentmanager.service.IncidentService;
+import com.rohan.incidentmanager.service.ShardCoordinator;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires incident escalations on time. When an incident opens, one timer is
+ * armed for its next level (lead, then CTO); firing escalates it, queues the
+ * alert and arms the following level. Closing the incident cancels the timer.
+ * Timers live in memory only: reconcile() rebuilds them from the active
+ * incidents on startup and every escalation.reconcileMs, which also picks up
+ * incidents of projects this node took over from another one.
+ */
+@Component
+public class EscalationScheduler {
+
+    @Autowired private IncidentService incidentService;
+    @Autowired private AlertDispatcher alertDispatcher;
+    @Autowired private ShardCoordinator shard;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Value("${escalation.leadMinutes:10}")
+    private int defaultLeadMinutes;
+
+    @Value("${escalation.ctoMinutes:15}")
+    private int defaultCtoMinutes;
+
+    private ScheduledThreadPoolExecutor timer;
+    // incident id -> pending timer for its next level
+    private final Map<Long, ScheduledFuture<?>> timers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "escalation-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        meterRegistry.gauge("escalation.timers.pending", timers, Map::size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    @EventListener
+    public void onIncident(IncidentLifecycleEvent event) {
+        Incident inc = event.getIncident();
+        switch (event.getType()) {
+            case OPENED -> arm(inc);
+            case CLOSED -> cancel(inc.getId());
+            case ESCALATED -> { } // the timer that escalated it already armed the next level
+        }
+    }
+
+    // Make the timers match the active incidents of the projects we own.
+    @Scheduled(fixedDelayString = "${escalation.reconcileMs:60000}", initialDelayString = "${escalation.reconcileInitialDelayMs:15000}")
+    public void reconcile() {
+        Set<Long> active = new HashSet<>();
+        for (Incident inc : incidentService.findAllActive()) {
+            if (!shard.owns(inc.getProject().getId())) continue;
+            active.add(inc.getId());
+            if (!timers.containsKey(inc.getId())) arm(inc);
+        }
+        timers.keySet().stream().filter(id -> !active.contains(id)).toList().forEach(this::cancel);
+    }
+
+    public int pendingTimers() {
+        return timers.size();
+    }
+
+    private void arm(Incident inc) {
+        int level = nextLevel(inc);
+        if (level == 0) return;
+        LocalDateTime dueAt = inc.getCreatedAt().plusMinutes(thresholdMinutes(inc.getProject(), level));
+        long delayMs = Math.max(0, Duration.between(LocalDateTime.now(), dueAt).toMillis());
+
+        ScheduledFuture<?> f = timer.schedule(() -> fire(inc, level), delayMs, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous = timers.put(inc.getId(), f);
+        if (previous != null) previous.cancel(false);
+    }
+
+    private void cancel(Long incidentId) {
+        ScheduledFuture<?> f = timers.remove(incidentId);
+        if (f != null) f.cancel(false);
+    }
+
+    private void fire(Incident inc, int level) {
+        timers.remove(inc.getId());
+        try {
+            Project p = inc.getProject();
+            // ownership may have moved since the timer was armed; the new owner re-arms it
+            if (!shard.owns(p.getId())) return;
+            // conditional update: false if it was closed or already escalated (another node)
+            if (incidentService.escalate(inc, level)) {
+                alertDispatcher.enqueue(level == 2 ? AlertType.ESCALATION_LEAD : AlertType.ESCALATION_CTO, p, inc);
+                System.out.println("Escalated incident " + inc.getId() + " for project " + p.getProjectName() + " to level " + level);
+                arm(inc);
+            }
+        } catch (Exception e) {
+            // leave it to the next reconcile()
+            System.err.println("Escalation of incident " + inc.getId() + " failed err=" + e.getMessage());
+        }
+    }
+
+    // 2 = lead, 3 = CTO, 0 = nothing left
+    private int nextLevel(Incident inc) {
+        if (inc.isAcknowledged()) return 0;
+        if (inc.getEscalationLevel() < 2) return 2;
+        if (inc.getEscalationLevel() < 3) return 3;
+        return 0;
+    }
+
+    private int thresholdMinutes(Project p, int level) {
+        if (level == 2) {
+            return p.getEscalateLeadAfterMinutes() != null ? p.getEscalateLeadAfterMinutes() : defaultLeadMinutes;
+        }
+        return p.getEscalateCtoAfterMinutes() != null ? p.getEscalateCtoAfterMinutes() : defaultCtoMinutes;
+    }
+}
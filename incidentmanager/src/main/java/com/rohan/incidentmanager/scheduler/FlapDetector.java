@@ -0,0 +1,107 @@
+package com.rohan.incidentmanager.scheduler;
+
+import com.rohan.incidentmanager.event.ShardRebalancedEvent;
+import com.rohan.incidentmanager.service.ShardCoordinator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-project UP/DOWN state machine that sits between raw probe results and
+ * incidents. A project is confirmed DOWN once flap.failuresToOpen of the last
+ * flap.windowSize probes failed (the latest one included), and only goes back
+ * UP after flap.successesToRecover probes in a row succeed. While a project is
+ * in between, it asks to be re-probed sooner, backing off on repeated failures.
+ * State is an immutable snapshot swapped with CAS, so no locks are taken.
+ */
+@Component
+public class FlapDetector {
+
+    @Autowired private ShardCoordinator shard;
+
+    @Value("${flap.windowSize:10}")
+    private int windowSize;
+
+    @Value("${flap.failuresToOpen:3}")
+    private int failuresToOpen;
+
+    @Value("${flap.successesToRecover:3}")
+    private int successesToRecover;
+
+    @Value("${flap.retryBaseMs:10000}")
+    private long retryBaseMs;
+
+    @Value("${flap.retryMaxMs:60000}")
+    private long retryMaxMs;
+
+    public enum Transition { NONE, OPENED, RECOVERED }
+
+    // what the scheduler should do with one probe result
+    public record Decision(Transition transition, boolean down, long retryInMs) {}
+
+    // history: bit i set = the i-th most recent probe failed
+    private record State(boolean down, long history, int failStreak, int okStreak) {}
+
+    private final Map<Long, AtomicReference<State>> states = new ConcurrentHashMap<>();
+
+    // First sight of a project: start from what the DB says (an open incident means DOWN).
+    public void seed(Long projectId, boolean down) {
+        states.computeIfAbsent(projectId, id -> new AtomicReference<>(
+                new State(down, down ? 1 : 0, down ? 1 : 0, 0)));
+    }
+
+    // a project that moved to another node starts from the DB again if it comes back
+    @EventListener
+    public void onRebalance(ShardRebalancedEvent event) {
+        states.keySet().removeIf(id -> !shard.owns(id));
+    }
+
+    public Decision record(Long projectId, boolean up) {
+        AtomicReference<State> ref = states.computeIfAbsent(projectId, id -> new AtomicReference<>(new State(false, 0, 0, 0)));
+        State prev, next;
+        do {
+            prev = ref.get();
+            next = apply(prev, up);
+        } while (!ref.compareAndSet(prev, next));
+
+        Transition t = prev.down() == next.down() ? Transition.NONE
+                : next.down() ? Transition.OPENED : Transition.RECOVERED;
+        return new Decision(t, next.down(), retryDelay(next));
+    }
+
+    private State apply(State s, boolean up) {
+        int window = Math.min(Math.max(1, windowSize), 63);
+        long mask = (1L << window) - 1;
+        long history = ((s.history() << 1) | (up ? 0 : 1)) & mask;
+        int failStreak = up ? 0 : s.failStreak() + 1;
+        int okStreak = up ? s.okStreak() + 1 : 0;
+
+        boolean down = s.down();
+        if (!down && !up && Long.bitCount(history) >= Math.max(1, failuresToOpen)) {
+            down = true;
+        } else if (down && okStreak >= Math.max(1, successesToRecover)) {
+            down = false;
+            history = 0; // start the next outage from a clean window
+        }
+        return new State(down, history, failStreak, okStreak);
+    }
+
+    // 0 = keep the normal interval; otherwise re-probe after this many ms
+    private long retryDelay(State s) {
+        if (!s.down() && s.failStreak() > 0) {
+            // suspected outage: base, 2x, 4x ... capped
+            long delay = retryBaseMs << Math.min(s.failStreak() - 1, 20);
+            return Math.min(delay, retryMaxMs);
+        }
+        if (s.down() && s.okStreak() > 0) {
+            // looks recovered: confirm quickly
+            return retryBaseMs;
+        }
+        return 0;
+    }
+}
@@ -1,121 +1,170 @@
 package com.rohan.incidentmanager.scheduler;
 
+import com.rohan.incidentmanager.entity.AlertType;
 import com.rohan.incidentmanager.entity.Incident;
 import com.rohan.incidentmanager.entity.Project;
-import com.rohan.incidentmanager.repository.ProjectRepository;
-import com.rohan.incidentmanager.service.AlertService;
+import com.rohan.incidentmanager.event.ShardRebalancedEvent;
+import com.rohan.incidentmanager.service.AlertDispatcher;
 import com.rohan.incidentmanager.service.IncidentService;
+import com.rohan.incidentmanager.service.ProbeHistoryService;
+import com.rohan.incidentmanager.service.ProjectRecipientCache;
+import com.rohan.incidentmanager.service.ProjectStatusStore;
+import com.rohan.incidentmanager.service.ShardCoordinator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class PingScheduler {
 
-    @Autowired private ProjectRepository projectRepository;
+    @Autowired private TickSnapshotLoader snapshotLoader;
     @Autowired private IncidentService incidentService;
-    @Autowired private AlertService alertService;
+    @Autowired private AlertDispatcher alertDispatcher;
+    @Autowired private ProbeEngine probeEngine;
+    @Autowired private ProbeDueQueue dueQueue;
+    @Autowired private ProjectStatusStore statusStore;
+    @Autowired private ProjectRecipientCache recipientCache;
+    @Autowired private ProbeHistoryService historyService;
+    @Autowired private FlapDetector flapDetector;
+    @Autowired private ShardCoordinator shard;
+    @Autowired private MeterRegistry meterRegistry;
 
-    private RestTemplate restTemplate() {
-        var factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(3000);
-        factory.setReadTimeout(3000);
-        return new RestTemplate(factory);
+    private record PendingAlert(AlertType type, Project project, Incident incident) {}
+
+    private Timer sweepTimer;
+    private Counter probeCounter;
+    private Timer detectionTimer;
+    // project id -> when its current run of failed probes started; only touched by the tick thread
+    private final Map<Long, Long> failingSince = new HashMap<>();
+    // confirmed DOWN but no incident opened yet (openIncident threw); retried on the next probe
+    private final Set<Long> openPending = new HashSet<>();
+    // set on a membership change; the tick thread then drops the maps above for projects it lost
+    private volatile boolean rebalanced;
+
+    @PostConstruct
+    public void init() {
+        sweepTimer = meterRegistry.timer("probe.sweep.duration");
+        probeCounter = meterRegistry.counter("probe.probes");
+        // first failed probe -> incident opened
+        detectionTimer = meterRegistry.timer("incident.detection");
+        meterRegistry.gauge("probe.due.queue.size", dueQueue, ProbeDueQueue::size);
+    }
+
+    @EventListener
+    public void onRebalance(ShardRebalancedEvent event) {
+        rebalanced = true;
     }
 
-    // runs every 30 seconds
-    @Scheduled(fixedRate = 30000)
+    // ticks every few seconds; each project is probed once per its checkIntervalMinutes
+    @Scheduled(fixedDelayString = "${probe.tickMs:5000}")
     public void runPing() {
-        List<Project> projects = projectRepository.findAll();
-        RestTemplate rt = restTemplate();
+        long now = System.currentTimeMillis();
+        if (rebalanced) {
+            rebalanced = false;
+            failingSince.keySet().removeIf(id -> !shard.owns(id));
+            openPending.removeIf(id -> !shard.owns(id));
+        }
+        TickSnapshot snapshot = snapshotLoader.load();
+        // with several backend nodes each one probes only the projects it owns on the hash ring
+        List<Project> all = snapshot.getProjects().stream().filter(p -> shard.owns(p.getId())).toList();
+        dueQueue.sync(all, now);
+        Set<Long> dueIds = new HashSet<>(dueQueue.pollDue(now));
+
+        List<Project> projects = new ArrayList<>();
+        for (Project p : all) {
+            if (!dueIds.contains(p.getId())) continue;
+            dueQueue.reschedule(p, now);
+            // skip if paused
+            if (p.getPausedUntil() != null && p.getPausedUntil().isAfter(LocalDateTime.now())) {
+                continue;
+            }
+            projects.add(p);
+        }
+        if (projects.isEmpty()) return;
+
+        long started = System.nanoTime();
+        try {
+            sweep(snapshot, projects, now);
+        } finally {
+            sweepTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            probeCounter.increment(projects.size());
+        }
+    }
+
+    // probe the due projects and turn the results into incident transitions and alerts
+    private void sweep(TickSnapshot snapshot, List<Project> projects, long now) {
+        // probe everything in parallel first, then handle results one by one
+        Map<Long, ProbeResult> results = probeEngine.probeAll(projects);
+        long probedAt = System.currentTimeMillis();
+        results.values().forEach(r -> historyService.record(r, probedAt));
+
+        List<PendingAlert> alerts = new ArrayList<>();
         for (Project p : projects) {
             try {
-                // skip if paused
-                if (p.getPausedUntil() != null && p.getPausedUntil().isAfter(LocalDateTime.now())) {
-                    continue;
-                }
+                ProbeResult result = results.get(p.getId());
+                boolean probeUp = result != null && "UP".equals(result.getStatus());
+                Incident active = snapshot.getActiveIncidents().get(p.getId());
 
-                String status = "UNKNOWN";
-                try {
-                    var resp = rt.getForEntity(p.getHealthUrl(), String.class);
-                    status = resp.getStatusCode().is2xxSuccessful() ? "UP" : "DOWN";
-                } catch (Exception ex) {
-                    status = "DOWN";
-                }
+                // one failed (or passed) probe is not enough; the detector decides the confirmed state
+                flapDetector.seed(p.getId(), active != null);
+                FlapDetector.Decision decision = flapDetector.record(p.getId(), probeUp);
+                if (decision.retryInMs() > 0) dueQueue.rescheduleIn(p, now, decision.retryInMs());
+                String status = decision.down() ? "DOWN" : "UP";
+                if (!probeUp) failingSince.putIfAbsent(p.getId(), probedAt);
+                else if (!decision.down()) failingSince.remove(p.getId());
 
-                p.setLastStatus(status);
-                p.setLastCheckedAt(LocalDateTime.now());
-                projectRepository.save(p);
-
-                if ("DOWN".equals(status)) {
-                    Optional<Incident> activeOpt = incidentService.findActiveForProject(p);
-                    if (activeOpt.isEmpty()) {
-                        Incident inc = incidentService.createIncident(p, "Health endpoint returned DOWN or timed out");
-
-                        // reload project with recipients (fetch-join) before alerting
-                        Project pWithRecipients = projectRepository.findWithRecipientsById(p.getId()).orElse(p);
-                        try {
-                            alertService.notifyNewIncident(pWithRecipients, inc);
-                        } catch (Exception mailEx) {
-                            System.err.println("Alert notify (new) failed for project=" + p.getProjectName() + " err=" + mailEx.getMessage());
-                        }
-                    } else {
-                        Incident inc = activeOpt.get();
-                        long minutes = java.time.Duration.between(inc.getCreatedAt(), LocalDateTime.now()).toMinutes();
-
-                        if (minutes >= 10 && inc.getEscalationLevel() < 2) {
-                            inc.setEscalationLevel(2);
-                            inc.setLastEscalationAt(LocalDateTime.now());
-                            incidentService.save(inc);
-
-                            Project pWithRecipients = projectRepository.findWithRecipientsById(p.getId()).orElse(p);
-                            try {
-                                alertService.notifyEscalationLead(pWithRecipients, inc);
-                            } catch (Exception mailEx) {
-                                System.err.println("Alert notify (lead) failed for project=" + p.getProjectName() + " err=" + mailEx.getMessage());
-                            }
-                        }
-
-                        if (minutes >= 15 && inc.getEscalationLevel() < 3) {
-                            inc.setEscalationLevel(3);
-                            inc.setLastEscalationAt(LocalDateTime.now());
-                            incidentService.save(inc);
-
-                            Project pWithRecipients = projectRepository.findWithRecipientsById(p.getId()).orElse(p);
-                            try {
-                                alertService.notifyEscalationCTO(pWithRecipients, inc);
-                            } catch (Exception mailEx) {
-                                System.err.println("Alert notify (cto) failed for project=" + p.getProjectName() + " err=" + mailEx.getMessage());
-                            }
-                        }
-                    }
-                } else {
-                    Optional<Incident> active = incidentService.findActiveForProject(p);
-                    if (active.isPresent()) {
-                        Incident inc = active.get();
-                        if (!inc.isAcknowledged()) {
-                            inc.setAcknowledged(true);
-                            incidentService.save(inc);
-
-                            Project pWithRecipients = projectRepository.findWithRecipientsById(p.getId()).orElse(p);
-                            try {
-                                alertService.notifyResolved(pWithRecipients, inc);
-                            } catch (Exception mailEx) {
-                                System.err.println("Alert notify (resolved) failed for project=" + p.getProjectName() + " err=" + mailEx.getMessage());
-                            }
-                            System.out.println("Incident resolved for project " + p.getProjectName());
-                        }
-                    }
+                statusStore.record(p, status, LocalDateTime.now());
+
+                // the detector reports OPENED once; keep trying on later probes until the incident row exists
+                if (decision.transition() == FlapDetector.Transition.OPENED) openPending.add(p.getId());
+                if (!decision.down() || active != null) openPending.remove(p.getId());
+
+                // escalations are timed by EscalationScheduler, not by re-probes
+                if (openPending.contains(p.getId())) {
+                    String reason = "Health endpoint returned DOWN or timed out";
+                    if (result != null && result.getError() != null) reason += " (" + result.getError() + ")";
+                    // empty if another node got there first; that node sends the alert
+                    incidentService.openIncident(p, reason).ifPresent(inc -> {
+                        alerts.add(new PendingAlert(AlertType.NEW_INCIDENT, p, inc));
+                        detectionTimer.record(probedAt - failingSince.getOrDefault(p.getId(), probedAt), TimeUnit.MILLISECONDS);
+                    });
+                    openPending.remove(p.getId());
+                } else if (!decision.down() && active != null && !active.isAcknowledged() && incidentService.resolve(active)) {
+                    alerts.add(new PendingAlert(AlertType.RESOLVED, p, active));
+                    System.out.println("Incident resolved for project " + p.getProjectName());
                 }
             } catch (Exception e) {
                 System.err.println("PingScheduler error for project id=" + p.getId() + " : " + e.getMessage());
             }
         }
+        if (alerts.isEmpty()) return;
+
+        // warm the recipient cache with one fetch-join query before the alert workers need it
+        Set<Long> alertProjectIds = new HashSet<>();
+        alerts.forEach(a -> alertProjectIds.add(a.project().getId()));
+        recipientCache.prefetch(alertProjectIds);
+
+        // notifications run on the alert pipeline; the scheduler only records what to send
+        for (PendingAlert a : alerts) {
+            try {
+                alertDispatcher.enqueue(a.type(), a.project(), a.incident());
+            } catch (Exception e) {
+                System.err.println("Alert enqueue (" + a.type() + ") failed for project=" + a.project().getProjectName() + " err=" + e.getMessage());
+            }
+        }
     }
 }
@@ -0,0 +1,89 @@
+package com.rohan.incidentmanager.scheduler;
+
+import com.rohan.incidentmanager.entity.Project;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps the next-due time of every project in a priority queue so a tick only
+ * probes projects whose checkIntervalMinutes has elapsed. Stale queue entries
+ * (rescheduled or removed projects) are skipped lazily when polled.
+ */
+@Component
+public class ProbeDueQueue {
+
+    // max random delay added to every reschedule so probes drift apart over time
+    @Value("${probe.rescheduleJitterMs:2000}")
+    private long rescheduleJitterMs;
+
+    private record Slot(long dueAt, Long projectId) {}
+
+    private final PriorityQueue<Slot> queue = new PriorityQueue<>(Comparator.comparingLong(Slot::dueAt));
+    private final Map<Long, Long> dueAt = new HashMap<>();
+
+    // Add newly seen projects (start spread randomly over one interval) and forget deleted ones.
+    public synchronized void sync(Collection<Project> projects, long nowMs) {
+        Set<Long> seen = new HashSet<>();
+        for (Project p : projects) {
+            seen.add(p.getId());
+            if (!dueAt.containsKey(p.getId())) {
+                long due = nowMs + ThreadLocalRandom.current().nextLong(intervalMs(p) + 1);
+                dueAt.put(p.getId(), due);
+                queue.add(new Slot(due, p.getId()));
+            }
+        }
+        dueAt.keySet().retainAll(seen);
+    }
+
+    // Remove and return ids of all projects due at or before nowMs.
+    public synchronized List<Long> pollDue(long nowMs) {
+        List<Long> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().dueAt() <= nowMs) {
+            Slot s = queue.poll();
+            Long current = dueAt.get(s.projectId());
+            if (current != null && current == s.dueAt()) {
+                due.add(s.projectId());
+            }
+        }
+        return due;
+    }
+
+    // Schedule the next probe one interval from now.
+    public synchronized void reschedule(Project p, long nowMs) {
+        long jitter = rescheduleJitterMs > 0 ? ThreadLocalRandom.current().nextLong(rescheduleJitterMs + 1) : 0;
+        schedule(p.getId(), nowMs + intervalMs(p) + jitter);
+    }
+
+    // Pull the next probe forward (re-probe after a failure); never later than the normal interval.
+    public synchronized void rescheduleIn(Project p, long nowMs, long delayMs) {
+        Long current = dueAt.get(p.getId());
+        long due = nowMs + delayMs;
+        if (current != null && current <= due) return;
+        schedule(p.getId(), due);
+    }
+
+    private void schedule(Long projectId, long due) {
+        dueAt.put(projectId, due);
+        queue.add(new Slot(due, projectId));
+    }
+
+    public synchronized int size() {
+        return dueAt.size();
+    }
+
+    private long intervalMs(Project p) {
+        Integer minutes = p.getCheckIntervalMinutes();
+        return (minutes == null || minutes < 1 ? 1 : minutes) * 60_000L;
+    }
+}
@@ -0,0 +1,154 @@
+package com.rohan.incidentmanager.scheduler;
+
+import com.rohan.incidentmanager.entity.Project;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Probes health endpoints in parallel. The worker pool size is the global
+ * concurrency limit; at most probe.perHostConcurrency probes of one host run at
+ * once. Probes over the host limit wait in that host's queue, not on a worker,
+ * so one slow host can't tie up the pool; a host is forgotten once it has
+ * nothing running or queued.
+ */
+@Component
+public class ProbeEngine {
+
+    @Value("${probe.concurrency:64}")
+    private int concurrency;
+
+    @Value("${probe.perHostConcurrency:4}")
+    private int perHostConcurrency;
+
+    // tag probe.latency with the project id; turn off to keep one series per outcome on large installs
+    @Value("${metrics.probe.perProject:true}")
+    private boolean perProjectMetrics;
+
+    @Autowired private ProbeHttpClient probeHttpClient;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private record Queued(Runnable task, CompletableFuture<ProbeResult> result) {}
+
+    // probes of one host: how many run, and the ones waiting for a slot
+    private static class Host {
+        int running;
+        final ArrayDeque<Queued> waiting = new ArrayDeque<>();
+    }
+
+    private ExecutorService executor;
+    // guarded by itself
+    private final Map<String, Host> hosts = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger seq = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "probe-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Probe all projects concurrently; a sweep takes roughly as long as the slowest probe.
+    public Map<Long, ProbeResult> probeAll(List<Project> projects) {
+        Map<Long, CompletableFuture<ProbeResult>> futures = new LinkedHashMap<>();
+        for (Project p : projects) {
+            CompletableFuture<ProbeResult> f = new CompletableFuture<>();
+            submit(p, f);
+            futures.put(p.getId(), f);
+        }
+
+        Map<Long, ProbeResult> results = new LinkedHashMap<>();
+        futures.forEach((id, f) -> {
+            try {
+                results.put(id, f.join());
+            } catch (Exception e) {
+                results.put(id, new ProbeResult(id, "DOWN", 0, 0, 0, "probe failed: " + e.getMessage()));
+            }
+        });
+        return results;
+    }
+
+    private void submit(Project p, CompletableFuture<ProbeResult> f) {
+        String host = hostOf(p.getHealthUrl());
+        Runnable task = () -> {
+            try {
+                f.complete(probe(p));
+            } catch (Exception e) {
+                f.completeExceptionally(e);
+            } finally {
+                release(host);
+            }
+        };
+        synchronized (hosts) {
+            Host h = hosts.computeIfAbsent(host, k -> new Host());
+            if (h.running >= Math.max(1, perHostConcurrency)) {
+                h.waiting.add(new Queued(task, f));
+                return;
+            }
+            h.running++;
+        }
+        execute(task, f);
+    }
+
+    // a probe of this host finished: hand its slot to the next queued probe, or drop the host
+    private void release(String host) {
+        Queued next;
+        synchronized (hosts) {
+            Host h = hosts.get(host);
+            if (h == null) return;
+            next = h.waiting.poll();
+            if (next == null && --h.running == 0) hosts.remove(host);
+        }
+        if (next != null) execute(next.task(), next.result());
+    }
+
+    private void execute(Runnable task, CompletableFuture<ProbeResult> f) {
+        try {
+            executor.execute(task);
+        } catch (Exception e) {
+            // shutting down
+            f.completeExceptionally(e);
+        }
+    }
+
+    // timings exclude time spent queued behind other probes of the same host
+    private ProbeResult probe(Project p) {
+        ProbeResult r = probeHttpClient.probe(p);
+        meterRegistry.timer("probe.latency",
+                        "project", perProjectMetrics ? String.valueOf(p.getId()) : "all",
+                        "status", r.getStatus())
+                .record(r.getLatencyMs(), TimeUnit.MILLISECONDS);
+        return r;
+    }
+
+    private String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+}
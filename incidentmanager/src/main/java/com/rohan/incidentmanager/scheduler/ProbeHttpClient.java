@@ -0,0 +1,154 @@
+package com.rohan.incidentmanager.scheduler;
+
+import com.rohan.incidentmanager.entity.Project;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived HTTP client for health probes. Connections are pooled and kept
+ * alive between ticks; the JDK client only takes a connect timeout per
+ * client, so project connect timeouts are rounded up to a few fixed steps,
+ * one client each. The whole probe is still bounded by the project's own
+ * timeouts. Host lookups go through the JVM DNS cache (TTL set in
+ * IncidentManagerApplication) on a small pool, bounded by the connect timeout.
+ */
+@Component
+public class ProbeHttpClient {
+
+    @Value("${probe.connectTimeoutMs:3000}")
+    private int defaultConnectTimeoutMs;
+
+    @Value("${probe.readTimeoutMs:3000}")
+    private int defaultReadTimeoutMs;
+
+    // lookups running at once; a lookup the resolver never answers holds a thread until the OS gives up
+    @Value("${probe.dnsThreads:64}")
+    private int dnsThreads;
+
+    // connect timeouts a client is built for; longer ones use the last
+    private static final int[] CONNECT_TIMEOUT_STEPS_MS = {250, 500, 1000, 2000, 3000, 5000, 10000, 30000};
+
+    private final Map<Integer, HttpClient> clients = new ConcurrentHashMap<>();
+    private ExecutorService dnsPool;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger seq = new AtomicInteger();
+        dnsPool = Executors.newFixedThreadPool(Math.max(1, dnsThreads), r -> {
+            Thread t = new Thread(r, "probe-dns-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dnsPool.shutdownNow();
+    }
+
+    private HttpClient clientFor(int connectTimeoutMs) {
+        int step = CONNECT_TIMEOUT_STEPS_MS[CONNECT_TIMEOUT_STEPS_MS.length - 1];
+        for (int ms : CONNECT_TIMEOUT_STEPS_MS) {
+            if (ms >= connectTimeoutMs) {
+                step = ms;
+                break;
+            }
+        }
+        return clients.computeIfAbsent(step, ms -> HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(ms))
+                .build());
+    }
+
+    public ProbeResult probe(Project p) {
+        // rows saved before createProject validated these may hold 0 or less; fall back to the defaults
+        int connectTimeoutMs = positiveOr(p.getProbeConnectTimeoutMs(), defaultConnectTimeoutMs);
+        int readTimeoutMs = positiveOr(p.getProbeTimeoutMs(), defaultReadTimeoutMs);
+
+        long start = System.nanoTime();
+        URI uri;
+        long dnsMs;
+        Future<InetAddress> lookup = null;
+        try {
+            uri = URI.create(p.getHealthUrl());
+            String host = uri.getHost();
+            // warms/reads the JVM DNS cache so the connect below doesn't pay for the lookup again;
+            // the lookup counts against the connect timeout
+            lookup = dnsPool.submit(() -> InetAddress.getByName(host));
+            lookup.get(connectTimeoutMs, TimeUnit.MILLISECONDS);
+            dnsMs = elapsedMs(start);
+        } catch (TimeoutException e) {
+            lookup.cancel(true);
+            return new ProbeResult(p.getId(), "DOWN", elapsedMs(start), elapsedMs(start), 0, "DNS lookup timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lookup.cancel(true);
+            return new ProbeResult(p.getId(), "DOWN", elapsedMs(start), elapsedMs(start), 0, "interrupted");
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            return new ProbeResult(p.getId(), "DOWN", elapsedMs(start), elapsedMs(start), 0, "DNS/URL error: " + cause.getMessage());
+        }
+
+        AtomicLong headersAt = new AtomicLong();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(readTimeoutMs))
+                .GET()
+                .build();
+        CompletableFuture<HttpResponse<Void>> future = clientFor(connectTimeoutMs).sendAsync(request, info -> {
+            headersAt.set(System.nanoTime());
+            // drain the body so the connection goes back to the pool
+            return HttpResponse.BodySubscribers.discarding();
+        });
+
+        try {
+            // request timeout only covers headers; bound the body read as well, minus the lookup
+            HttpResponse<Void> resp = future.get(Math.max(1, connectTimeoutMs + 2L * readTimeoutMs - dnsMs), TimeUnit.MILLISECONDS);
+            long total = elapsedMs(start);
+            long ttfb = headersAt.get() == 0 ? total : (headersAt.get() - start) / 1_000_000;
+            boolean up = resp.statusCode() / 100 == 2;
+            return new ProbeResult(p.getId(), up ? "UP" : "DOWN", total, dnsMs, ttfb, up ? null : "HTTP " + resp.statusCode());
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return new ProbeResult(p.getId(), "DOWN", elapsedMs(start), dnsMs, 0, "timed out");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            String error = cause instanceof HttpTimeoutException ? "timed out"
+                    : cause.getClass().getSimpleName() + (cause.getMessage() == null ? "" : ": " + cause.getMessage());
+            return new ProbeResult(p.getId(), "DOWN", elapsedMs(start), dnsMs, 0, error);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return new ProbeResult(p.getId(), "DOWN", elapsedMs(start), dnsMs, 0, "interrupted");
+        }
+    }
+
+    private static int positiveOr(Integer value, int fallback) {
+        return value != null && value > 0 ? value : fallback;
+    }
+
+    private long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
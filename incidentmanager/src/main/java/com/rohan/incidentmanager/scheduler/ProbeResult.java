@@ -0,0 +1,15 @@
+package com.rohan.incidentmanager.scheduler;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProbeResult {
+    private Long projectId;
+    private String status; // UP / DOWN
+    private long latencyMs; // total: request start -> body fully read
+    private long dnsMs;     // 0 when the JVM DNS cache answered
+    private long ttfbMs;    // request start -> response headers
+    private String error;   // why the probe is DOWN, null when UP
+}
@@ -0,0 +1,16 @@
+package com.rohan.incidentmanager.scheduler;
+
+import com.rohan.incidentmanager.entity.Incident;
+import com.rohan.incidentmanager.entity.Project;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class TickSnapshot {
+    private List<Project> projects;
+    private Map<Long, Incident> activeIncidents; // newest unacknowledged incident per project id
+}
@@ -0,0 +1,36 @@
+package com.rohan.incidentmanager.scheduler;
+
+import com.rohan.incidentmanager.entity.Incident;
+import com.rohan.incidentmanager.entity.Project;
+import com.rohan.incidentmanager.repository.ProjectRepository;
+import com.rohan.incidentmanager.service.IncidentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads everything a scheduler tick needs in two queries: all projects, then
+ * all active incidents. Both run in one persistence context so the incidents'
+ * projects resolve from the first query instead of one select each.
+ */
+@Component
+public class TickSnapshotLoader {
+
+    @Autowired private ProjectRepository projectRepository;
+    @Autowired private IncidentService incidentService;
+
+    @Transactional(readOnly = true)
+    public TickSnapshot load() {
+        List<Project> projects = projectRepository.findAllForProbing();
+        Map<Long, Incident> active = new HashMap<>();
+        for (Incident inc : incidentService.findAllActive()) {
+            // ordered newest first, keep the first one per project
+            active.putIfAbsent(inc.getProject().getId(), inc);
+        }
+        return new TickSnapshot(projects, active);
+    }
+}
@@ -1,6 +1,5 @@
 package com.rohan.incidentmanager.security;
 
-import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -31,9 +30,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String token = header.substring(7);
         try {
-            DecodedJWT decoded = jwtUtil.validate(token);
-            String email = decoded.getSubject();
-            String role = decoded.getClaim("role").asString();
+            // cached after the first request with this token; revoked tokens throw
+            JwtUtil.VerifiedToken verified = jwtUtil.authenticate(token);
+            String email = verified.email();
+            String role = verified.role();
 
             // Create the authentication token
             var auth = new UsernamePasswordAuthenticationToken(email, null,
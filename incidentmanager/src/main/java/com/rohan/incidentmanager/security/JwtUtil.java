@@ -1,11 +1,23 @@
 package com.rohan.incidentmanager.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.rohan.incidentmanager.util.TtlLruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
@@ -15,17 +27,88 @@ public class JwtUtil {
     @Value("${jwt.expirationMs}")
     private long expirationMs;
 
+    @Value("${jwt.cache.maxEntries:10000}")
+    private int cacheMaxEntries;
+
+    @Autowired private TokenRevocationService revocations;
+    @Autowired private MeterRegistry meterRegistry;
+
+    // what a verified token says about its caller
+    public record VerifiedToken(String email, String role, long expiresAtMs) {}
+
+    // the algorithm and verifier are thread-safe, so build them once
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+    // sha-256 of the token -> verified claims, kept until the token expires
+    private TtlLruCache<String, VerifiedToken> verified;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    public void init() {
+        algorithm = Algorithm.HMAC256(secret);
+        verifier = JWT.require(algorithm).build();
+        verified = new TtlLruCache<>(cacheMaxEntries);
+        hits = meterRegistry.counter("jwt.cache.requests", "result", "hit");
+        misses = meterRegistry.counter("jwt.cache.requests", "result", "miss");
+        meterRegistry.gauge("jwt.cache.size", verified, TtlLruCache::size);
+        meterRegistry.gauge("jwt.revoked.size", revocations, TokenRevocationService::size);
+    }
+
     public String generateToken(String email, String role) {
-        Algorithm alg = Algorithm.HMAC256(secret);
         return JWT.create()
                 .withSubject(email)
                 .withClaim("role", role)
+                // unique per login, so logging out one session doesn't revoke another issued the same second
+                .withJWTId(UUID.randomUUID().toString())
                 .withIssuedAt(new Date())
                 .withExpiresAt(new Date(System.currentTimeMillis() + expirationMs))
-                .sign(alg);
+                .sign(algorithm);
     }
 
     public DecodedJWT validate(String token) {
-        return JWT.require(Algorithm.HMAC256(secret)).build().verify(token);
+        return verifier.verify(token);
+    }
+
+    // Verify a bearer token, answering repeat requests with the same token from the cache.
+    public VerifiedToken authenticate(String token) {
+        String key = hash(token);
+        if (revocations.isRevoked(key)) throw new JWTVerificationException("Token revoked");
+        VerifiedToken v = verified.get(key);
+        if (v != null) {
+            hits.increment();
+            return v;
+        }
+        misses.increment();
+        DecodedJWT decoded = verifier.verify(token);
+        // tokens without an expiry are verified every time
+        long expiresAtMs = decoded.getExpiresAt() == null ? 0 : decoded.getExpiresAt().getTime();
+        v = new VerifiedToken(decoded.getSubject(), decoded.getClaim("role").asString(), expiresAtMs);
+        verified.put(key, v, expiresAtMs - System.currentTimeMillis());
+        return v;
+    }
+
+    // Revoke a still-valid token (logout); false if it doesn't verify.
+    public boolean revoke(String token) {
+        DecodedJWT decoded;
+        try {
+            decoded = verifier.verify(token);
+        } catch (JWTVerificationException e) {
+            return false;
+        }
+        String key = hash(token);
+        verified.invalidate(key);
+        long expiresAtMs = decoded.getExpiresAt() == null ? System.currentTimeMillis() + expirationMs : decoded.getExpiresAt().getTime();
+        revocations.revoke(key, expiresAtMs);
+        return true;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
     }
 }
@@ -0,0 +1,43 @@
+package com.rohan.incidentmanager.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+// Lets Prometheus read /actuator/** with a static bearer token (metrics.scrapeToken) instead of a user's JWT.
+public class MetricsScrapeFilter extends OncePerRequestFilter {
+    private final byte[] token;
+    public MetricsScrapeFilter(String token) { this.token = token.getBytes(StandardCharsets.UTF_8); }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return token.length == 0 || !request.getRequestURI().startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String header = request.getHeader("Authorization");
+        if (StringUtils.hasText(header) && header.startsWith("Bearer ")
+                && MessageDigest.isEqual(token, header.substring(7).getBytes(StandardCharsets.UTF_8))) {
+            var auth = new UsernamePasswordAuthenticationToken("metrics-scraper", null,
+                    List.of(new SimpleGrantedAuthority("ROLE_METRICS")));
+            SecurityContextHolder.getContext().setAuthentication(auth);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
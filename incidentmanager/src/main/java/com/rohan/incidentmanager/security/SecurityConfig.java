@@ -1,6 +1,8 @@
 package com.rohan.incidentmanager.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -24,6 +26,10 @@ public class SecurityConfig {
     @Autowired
     private JwtUtil jwtUtil;
 
+    // static bearer token for Prometheus; empty = /actuator/** needs a user's JWT
+    @Value("${metrics.scrapeToken:}")
+    private String scrapeToken;
+
     @Bean
     public JwtAuthFilter jwtAuthFilter() {
         return new JwtAuthFilter(jwtUtil);
@@ -64,14 +70,19 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // **THE FIX**: Explicitly permit all pre-flight OPTIONS requests
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // async dispatches (SSE completion) were already authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Permit public endpoints
                         .requestMatchers("/api/auth/login", "/api/auth/register").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
+                        // only health is public; metrics and prometheus expose per-project data
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
                         // All other requests must be authenticated
                         .anyRequest().authenticated()
                 )
                 // Add the JWT filter to validate tokens
-                .addFilterBefore(jwtAuthFilter(), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter(), UsernamePasswordAuthenticationFilter.class)
+                // after the JWT filter, which clears the context for a token it can't parse
+                .addFilterAfter(new MetricsScrapeFilter(scrapeToken), JwtAuthFilter.class);
 
         return http.build();
     }
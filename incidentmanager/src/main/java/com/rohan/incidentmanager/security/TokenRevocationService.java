@@ -0,0 +1,84 @@
+package com.rohan.incidentmanager.security;
+
+import com.rohan.incidentmanager.entity.RevokedToken;
+import com.rohan.incidentmanager.repository.RevokedTokenRepository;
+import com.rohan.incidentmanager.service.ShardCoordinator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Logged-out tokens. Lookups only touch the in-memory map; revocations are
+ * written to revoked_tokens so the other backend nodes pick them up on their
+ * next sync (jwt.revocation.syncMs). Entries are dropped once the token
+ * would have expired anyway.
+ */
+@Service
+public class TokenRevocationService {
+
+    // revocations written by other nodes are read back with this much overlap to absorb clock skew
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    @Autowired private RevokedTokenRepository revokedTokenRepository;
+    @Autowired private ShardCoordinator shard;
+
+    // token hash -> token expiry (epoch ms)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private LocalDateTime lastSync = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public boolean isRevoked(String tokenHash) {
+        return revoked.containsKey(tokenHash);
+    }
+
+    public void revoke(String tokenHash, long expiresAtMs) {
+        revoked.put(tokenHash, expiresAtMs);
+        try {
+            RevokedToken row = new RevokedToken();
+            row.setTokenHash(tokenHash);
+            row.setRevokedAt(LocalDateTime.now());
+            row.setExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMs), ZoneId.systemDefault()));
+            revokedTokenRepository.save(row);
+        } catch (Exception ex) {
+            // still revoked on this node; other nodes accept the token until it expires
+            System.err.println("Persisting token revocation failed err=" + ex.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.revocation.syncMs:10000}", initialDelayString = "${jwt.revocation.syncMs:10000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            for (RevokedToken t : revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(lastSync, now)) {
+                revoked.put(t.getTokenHash(), t.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+            lastSync = now.minusSeconds(SYNC_OVERLAP_SECONDS);
+        } catch (Exception ex) {
+            System.err.println("Token revocation sync failed err=" + ex.getMessage());
+        }
+        long nowMs = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt < nowMs);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purgeMs:3600000}", initialDelayString = "${jwt.revocation.purgeMs:3600000}")
+    public void purge() {
+        if (!shard.isLeader()) return;
+        try {
+            revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        } catch (Exception ex) {
+            System.err.println("Revoked token purge failed err=" + ex.getMessage());
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+}
@@ -0,0 +1,5 @@
+package com.rohan.incidentmanager.service;
+
+public enum AlertChannel {
+    VOICE, MAIL
+}
@@ -0,0 +1,214 @@
+package com.rohan.incidentmanager.service;
+
+import com.rohan.incidentmanager.entity.AlertJob;
+import com.rohan.incidentmanager.entity.AlertType;
+import com.rohan.incidentmanager.entity.Incident;
+import com.rohan.incidentmanager.entity.Project;
+import com.rohan.incidentmanager.repository.AlertJobRepository;
+import com.rohan.incidentmanager.repository.IncidentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Outbound alert pipeline. The scheduler only writes an AlertJob row and
+ * offers its id to a bounded in-memory queue; worker threads pick jobs up and
+ * hand them to the NotificationAggregator (or, with aggregation off, run the
+ * AI/voice/mail fan-out themselves). Jobs that don't fit in the queue, fail,
+ * or were pending at shutdown are picked up again from the table by recover().
+ */
+@Service
+public class AlertDispatcher {
+
+    @Autowired private AlertJobRepository alertJobRepository;
+    @Autowired private IncidentRepository incidentRepository;
+    @Autowired private ProjectRecipientCache recipientCache;
+    @Autowired private ProjectStatusStore statusStore;
+    @Autowired private AlertService alertService;
+    @Autowired private NotificationAggregator aggregator;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private ShardCoordinator shard;
+
+    @Value("${alerts.workers:4}")
+    private int workers;
+
+    @Value("${alerts.queueCapacity:1000}")
+    private int queueCapacity;
+
+    @Value("${alerts.maxAttempts:3}")
+    private int maxAttempts;
+
+    private BlockingQueue<Long> queue;
+    // ids that are queued or being processed, so recover() doesn't enqueue them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private Counter overflow;
+    private Timer lag;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        meterRegistry.gauge("alerts.queue.depth", queue, BlockingQueue::size);
+        overflow = meterRegistry.counter("alerts.queue.overflow");
+        lag = meterRegistry.timer("alerts.lag");
+
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            Thread t = new Thread(this::workLoop, "alert-worker-" + (i + 1));
+            t.setDaemon(true);
+            t.start();
+            threads.add(t);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+    }
+
+    public void enqueue(AlertType type, Project p, Incident inc) {
+        AlertJob job = new AlertJob();
+        job.setProjectId(p.getId());
+        job.setIncidentId(inc.getId());
+        job.setType(type);
+        job = alertJobRepository.save(job);
+        offer(job.getId());
+    }
+
+    private void offer(Long jobId) {
+        if (!inFlight.add(jobId)) return;
+        if (!queue.offer(jobId)) {
+            // queue full: leave the row PENDING, recover() will retry it
+            inFlight.remove(jobId);
+            overflow.increment();
+            System.err.println("Alert queue full, job " + jobId + " deferred");
+        }
+    }
+
+    private void workLoop() {
+        while (running) {
+            Long jobId;
+            try {
+                jobId = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            boolean handedOff = false;
+            try {
+                handedOff = process(jobId);
+            } catch (Exception e) {
+                System.err.println("Alert job " + jobId + " crashed err=" + e.getMessage());
+            } finally {
+                // a job waiting in a digest window stays in flight until the digest went out
+                if (!handedOff) inFlight.remove(jobId);
+            }
+        }
+    }
+
+    // true if the job went to the aggregator, which completes it later
+    private boolean process(Long jobId) {
+        AlertJob job = alertJobRepository.findById(jobId).orElse(null);
+        if (job == null || !"PENDING".equals(job.getStatus())) return false;
+
+        Incident inc = incidentRepository.findById(job.getIncidentId()).orElse(null);
+        Project cached = recipientCache.get(job.getProjectId());
+        if (inc == null || cached == null) {
+            finish(job, "FAILED", "Incident or project no longer exists");
+            return false;
+        }
+        // the cached entity is shared with other threads; the alert texts get a copy with the live status
+        Project p = new Project();
+        BeanUtils.copyProperties(cached, p);
+        String status = statusStore.statusOf(p.getId());
+        if (status != null) p.setLastStatus(status);
+
+        Set<AlertChannel> channels = EnumSet.noneOf(AlertChannel.class);
+        if (!job.isVoiceSent()) channels.add(AlertChannel.VOICE);
+        if (!job.isMailSent()) channels.add(AlertChannel.MAIL);
+        Set<String> paged = ConcurrentHashMap.newKeySet();
+        if (job.getVoicePaged() != null && !job.getVoicePaged().isBlank()) {
+            paged.addAll(Arrays.asList(job.getVoicePaged().split(",")));
+        }
+
+        if (aggregator.isEnabled()) {
+            aggregator.submit(new AlertService.DigestItem(job.getType(), p, inc, channels, paged), sent -> {
+                try {
+                    complete(job, p, sent, paged);
+                } finally {
+                    inFlight.remove(jobId);
+                }
+            });
+            return true;
+        }
+        complete(job, p, alertService.notify(job.getType(), p, inc, channels, paged), paged);
+        return false;
+    }
+
+    private void complete(AlertJob job, Project p, Set<AlertChannel> sent, Set<String> paged) {
+        if (sent.contains(AlertChannel.VOICE)) job.setVoiceSent(true);
+        job.setVoicePaged(paged.isEmpty() ? null : String.join(",", paged));
+        if (sent.contains(AlertChannel.MAIL)) job.setMailSent(true);
+        job.setAttempts(job.getAttempts() + 1);
+
+        if (job.isVoiceSent() && job.isMailSent()) {
+            finish(job, "SENT", null);
+            lag.record(Duration.between(job.getCreatedAt(), LocalDateTime.now()));
+        } else if (job.getAttempts() >= maxAttempts) {
+            finish(job, "FAILED", "Channels still pending after " + job.getAttempts() + " attempts");
+            System.err.println("Alert job " + job.getId() + " gave up for project=" + p.getProjectName());
+        } else {
+            alertJobRepository.save(job);
+        }
+    }
+
+    private void finish(AlertJob job, String status, String error) {
+        job.setStatus(status);
+        job.setLastError(error);
+        job.setProcessedAt(LocalDateTime.now());
+        alertJobRepository.save(job);
+    }
+
+    // Re-enqueue pending rows: after a restart, after queue overflow, or after a partial failure.
+    // Only jobs of projects this node owns, so a job left by a dead node is sent once. Ownership is
+    // decided here, so the scan pages on past other nodes' jobs until the queue is full.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${alerts.recoveryMs:30000}", initialDelayString = "${alerts.recoveryMs:30000}")
+    public void recover() {
+        long afterId = 0;
+        List<AlertJob> page;
+        do {
+            page = alertJobRepository.findTop500ByStatusAndIdGreaterThanOrderByIdAsc("PENDING", afterId);
+            for (AlertJob job : page) {
+                if (shard.owns(job.getProjectId())) offer(job.getId());
+            }
+            if (!page.isEmpty()) afterId = page.get(page.size() - 1).getId();
+        } while (page.size() == 500 && queue.remainingCapacity() > 0);
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+}
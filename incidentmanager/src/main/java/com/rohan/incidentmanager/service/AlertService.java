@@ -1,37 +1,51 @@
 package com.rohan.incidentmanager.service;
 
 import com.rohan.incidentmanager.ai.GroqChatClient;
+import com.rohan.incidentmanager.entity.AlertType;
 import com.rohan.incidentmanager.entity.Incident;
 import com.rohan.incidentmanager.entity.Project;
 import com.rohan.incidentmanager.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @Service
 public class AlertService {
 
-    @Autowired private JavaMailSender mailSender;
+    @Autowired private MailDeliveryService mailDelivery;
     @Autowired private VoiceCallService voiceCallService;
     @Autowired private GroqChatClient groq;
+    @Autowired @Qualifier("aiExecutor") private Executor aiExecutor;
+    @Autowired @Qualifier("voiceExecutor") private Executor voiceExecutor;
+    @Autowired @Qualifier("mailExecutor") private Executor mailExecutor;
 
+    // one alert of a digest; channels are the ones still to send for its job, paged the numbers earlier
+    // attempts of the job reached (a thread-safe set: calls skip these and add the ones they reach)
+    public record DigestItem(AlertType type, Project project, Incident incident, Set<AlertChannel> channels,
+                             Set<String> paged) {}
+
+    // queued in the outbox; MailDeliveryService sends and retries it
     private void sendMail(List<String> to, List<String> cc, String subject, String body) {
-        if (to == null || to.isEmpty()) return;
-        SimpleMailMessage m = new SimpleMailMessage();
-        m.setTo(to.toArray(new String[0]));
-        if (cc != null && !cc.isEmpty()) {
-            m.setCc(cc.toArray(new String[0]));
-        }
-        m.setSubject(subject);
-        m.setText(body);
-        mailSender.send(m);
+        mailDelivery.enqueue(to, cc, subject, body);
     }
 
     private List<String> devEmails(Project p) {
@@ -52,6 +66,30 @@ public class AlertService {
         return p.getHead() != null ? p.getHead().getEmail() : null;
     }
 
+    private String phoneOf(User u) {
+        return u != null && u.getPhone() != null && !u.getPhone().isBlank() ? u.getPhone() : null;
+    }
+
+    // everyone an alert mails: developers, lead and CTO, whichever type it is
+    private Set<String> mailRecipients(Project p) {
+        Set<String> all = new LinkedHashSet<>(devEmails(p));
+        if (leadEmail(p) != null) all.add(leadEmail(p));
+        if (ctoEmail(p) != null) all.add(ctoEmail(p));
+        return all;
+    }
+
+    // who an alert of this type calls, same as the single-alert notify* methods
+    private Set<String> voiceRecipients(AlertType type, Project p) {
+        Set<String> phones = new LinkedHashSet<>();
+        if (type == AlertType.NEW_INCIDENT || type == AlertType.RESOLVED) {
+            if (p.getDevelopers() != null) p.getDevelopers().forEach(u -> phones.add(phoneOf(u)));
+        }
+        if (type == AlertType.ESCALATION_LEAD || type == AlertType.RESOLVED) phones.add(phoneOf(p.getTeamLead()));
+        if (type == AlertType.ESCALATION_CTO) phones.add(phoneOf(p.getHead()));
+        phones.remove(null);
+        return phones;
+    }
+
     // -------- AI helpers --------
 
     private String aiEmailPara(Project p, Incident inc, String audience) {
@@ -67,8 +105,14 @@ Reason: %s
 
 Write next steps and likely causes, concise and pragmatic.
 """.formatted(audience, p.getProjectName(), safe(p.getHealthUrl()), p.getLastStatus(), minutes, safe(inc.getReason()));
-        String out = groq.chat(system, user);
-        if (out == null || out.isBlank() || "No answer.".equalsIgnoreCase(out)) return "";
+        String out;
+        try {
+            out = groq.chat(system, user);
+        } catch (Exception e) {
+            System.err.println("AI email paragraph failed for project=" + p.getProjectName() + " err=" + e.getMessage());
+            return "";
+        }
+        if (out == null || out.isBlank() || GroqChatClient.isFallback(out)) return "";
         return out.length() > 600 ? out.substring(0, 600) + " ..." : out;
     }
 
@@ -85,8 +129,14 @@ Reason: %s
 
 Return only the speech text.
 """.formatted(audience, tone, p.getProjectName(), p.getLastStatus(), minutes, safe(inc.getReason()));
-        String out = groq.chat(system, user);
-        if (out == null || out.isBlank() || "No answer.".equalsIgnoreCase(out)) {
+        String out;
+        try {
+            out = groq.chat(system, user);
+        } catch (Exception e) {
+            System.err.println("AI voice script failed for project=" + p.getProjectName() + " err=" + e.getMessage());
+            out = null;
+        }
+        if (out == null || out.isBlank() || GroqChatClient.isFallback(out)) {
             // fallback to previous static voice lines
             return "Alert. " + p.getProjectName() + " status " + p.getLastStatus() + ". Please investigate the health checks and recent changes.";
         }
@@ -95,6 +145,50 @@ Return only the speech text.
         return out.replaceAll("[\\r\\n]+", " ");
     }
 
+    // One paragraph for a whole digest; the model is asked to look for a shared cause.
+    private String aiDigestPara(List<DigestItem> items) {
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < Math.min(items.size(), 20); i++) {
+            DigestItem it = items.get(i);
+            list.append("- ").append(it.project().getProjectName()).append(" (").append(it.type()).append("): ")
+                    .append(safe(it.incident().getReason())).append('\n');
+        }
+        if (items.size() > 20) list.append("- ... and ").append(items.size() - 20).append(" more\n");
+        String system = "You are an on-call SRE assistant. Write one short actionable paragraph (3-5 sentences, <= 600 chars) about several alerts raised within seconds of each other. Avoid stack traces or secrets.";
+        String user = """
+Alerts:
+%s
+Say whether they look like one shared cause (dependency, network, deploy) and what to check first.
+""".formatted(list);
+        String out;
+        try {
+            out = groq.chat(system, user);
+        } catch (Exception e) {
+            System.err.println("AI digest paragraph failed for " + items.size() + " alerts err=" + e.getMessage());
+            return "";
+        }
+        if (out == null || out.isBlank() || GroqChatClient.isFallback(out)) return "";
+        return out.length() > 600 ? out.substring(0, 600) + " ..." : out;
+    }
+
+    private String voiceDigest(List<DigestItem> items) {
+        List<String> open = new ArrayList<>();
+        int resolved = 0;
+        for (DigestItem it : items) {
+            if (it.type() == AlertType.RESOLVED) resolved++;
+            else open.add(it.project().getProjectName());
+        }
+        StringBuilder s = new StringBuilder("Alert digest. ");
+        if (!open.isEmpty()) {
+            s.append(open.size()).append(open.size() == 1 ? " service needs" : " services need").append(" attention: ")
+                    .append(String.join(", ", open.subList(0, Math.min(open.size(), 5))));
+            if (open.size() > 5) s.append(" and ").append(open.size() - 5).append(" more");
+            s.append(". ");
+        }
+        if (resolved > 0) s.append(resolved).append(resolved == 1 ? " service recovered. " : " services recovered. ");
+        return s.append("Details are in your email.").toString();
+    }
+
     private String safe(String s) {
         if (s == null) return "N/A";
         // strip potential secrets-like tokens
@@ -103,13 +197,61 @@ Return only the speech text.
 
     // -------- Notifications --------
 
-    @Transactional(readOnly = true)
-    public void notifyNewIncident(Project p, Incident inc) {
-        // Voice: Developer first, AI 25-30s script
-        if (voiceCallService.isConfigured()) {
-            String speech = aiVoiceScript(p, inc, "Developer", "calm and urgent");
-            voiceCallService.callDevelopers(p, speech);
+    // Generate AI text and send voice/mail in parallel on their own pools; returns the channels that went out.
+    // call returns false when a call failed, so the job tries VOICE again.
+    private Set<AlertChannel> fanOut(Set<AlertChannel> channels,
+                                     Supplier<String> speech, Predicate<String> call,
+                                     Supplier<String> aiPara, Consumer<String> mail) {
+        Set<AlertChannel> done = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> work = new ArrayList<>();
+        if (channels.contains(AlertChannel.VOICE)) {
+            if (voiceCallService.isConfigured()) {
+                work.add(CompletableFuture.supplyAsync(speech, aiExecutor)
+                        .thenApplyAsync(call::test, voiceExecutor)
+                        .thenAccept(ok -> {
+                            if (ok) done.add(AlertChannel.VOICE);
+                            else System.err.println("Alert channel VOICE had failed calls, will be retried");
+                        }));
+            } else {
+                done.add(AlertChannel.VOICE);
+            }
+        }
+        if (channels.contains(AlertChannel.MAIL)) {
+            work.add(CompletableFuture.supplyAsync(aiPara, aiExecutor)
+                    .thenAcceptAsync(mail, mailExecutor)
+                    .thenRun(() -> done.add(AlertChannel.MAIL)));
+        }
+        for (CompletableFuture<Void> f : work) {
+            try {
+                f.join();
+            } catch (Exception e) {
+                System.err.println("Alert channel failed err=" + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+            }
         }
+        return done;
+    }
+
+    // pages the developers not reached yet; true once all of them were
+    private boolean callDevelopers(Project p, String speech, LocalDateTime detectedAt, Set<String> paged) {
+        PageReport report = voiceCallService.callDevelopers(p, speech, detectedAt, paged);
+        paged.addAll(report.getSettled());
+        return report.getFailed() == 0;
+    }
+
+    // calls phone unless an earlier attempt reached it; call is false only for a failed call
+    private boolean callOnce(String phone, Set<String> paged, BooleanSupplier call) {
+        if (phone != null && paged.contains(phone)) return true;
+        boolean ok = call.getAsBoolean();
+        if (ok && phone != null) paged.add(phone);
+        return ok;
+    }
+
+    private String withAiSummary(String body, String aiPara) {
+        return body + (aiPara.isBlank() ? "" : ("\nAI summary:\n" + aiPara + "\n"));
+    }
+
+    public Set<AlertChannel> notifyNewIncident(Project p, Incident inc, Set<AlertChannel> channels, Set<String> paged) {
+        // Voice: Developer first, AI 25-30s script
         // Email: Devs TO, Lead & CTO CC + AI paragraph
         List<String> to = devEmails(p);
         List<String> cc = new ArrayList<>();
@@ -118,18 +260,14 @@ Return only the speech text.
         if (lead != null) cc.add(lead);
         if (cto != null) cc.add(cto);
 
-        String aiPara = aiEmailPara(p, inc, "Developer");
-        String body = EmailTemplates.bodyNewDown(p, inc)
-                + (aiPara.isBlank() ? "" : ("\nAI summary:\n" + aiPara + "\n"));
-        sendMail(to, cc, EmailTemplates.subjectNewDown(p), body);
+        return fanOut(channels,
+                () -> aiVoiceScript(p, inc, "Developer", "calm and urgent"),
+                speech -> callDevelopers(p, speech, inc.getCreatedAt(), paged),
+                () -> aiEmailPara(p, inc, "Developer"),
+                aiPara -> sendMail(to, cc, EmailTemplates.subjectNewDown(p), withAiSummary(EmailTemplates.bodyNewDown(p, inc), aiPara)));
     }
 
-    @Transactional(readOnly = true)
-    public void notifyEscalationLead(Project p, Incident inc) {
-        if (voiceCallService.isConfigured()) {
-            String speech = aiVoiceScript(p, inc, "Team Lead", "decisive and brief");
-            voiceCallService.callLead(p, speech);
-        }
+    public Set<AlertChannel> notifyEscalationLead(Project p, Incident inc, Set<AlertChannel> channels, Set<String> paged) {
         List<String> to = new ArrayList<>();
         String lead = leadEmail(p);
         if (lead != null) to.add(lead);
@@ -137,18 +275,14 @@ Return only the speech text.
         String cto = ctoEmail(p);
         if (cto != null) cc.add(cto);
 
-        String aiPara = aiEmailPara(p, inc, "Team Lead");
-        String body = EmailTemplates.bodyEscLead(p, inc)
-                + (aiPara.isBlank() ? "" : ("\nAI summary:\n" + aiPara + "\n"));
-        sendMail(to, cc, EmailTemplates.subjectEscLead(p), body);
+        return fanOut(channels,
+                () -> aiVoiceScript(p, inc, "Team Lead", "decisive and brief"),
+                speech -> callOnce(phoneOf(p.getTeamLead()), paged, () -> voiceCallService.callLead(p, speech)),
+                () -> aiEmailPara(p, inc, "Team Lead"),
+                aiPara -> sendMail(to, cc, EmailTemplates.subjectEscLead(p), withAiSummary(EmailTemplates.bodyEscLead(p, inc), aiPara)));
     }
 
-    @Transactional(readOnly = true)
-    public void notifyEscalationCTO(Project p, Incident inc) {
-        if (voiceCallService.isConfigured()) {
-            String speech = aiVoiceScript(p, inc, "CTO", "executive concise");
-            voiceCallService.callCTO(p, speech);
-        }
+    public Set<AlertChannel> notifyEscalationCTO(Project p, Incident inc, Set<AlertChannel> channels, Set<String> paged) {
         List<String> to = new ArrayList<>();
         String cto = ctoEmail(p);
         if (cto != null) to.add(cto);
@@ -157,19 +291,14 @@ Return only the speech text.
         if (lead != null) cc.add(lead);
         cc.addAll(devEmails(p));
 
-        String aiPara = aiEmailPara(p, inc, "CTO");
-        String body = EmailTemplates.bodyEscCTO(p, inc)
-                + (aiPara.isBlank() ? "" : ("\nAI summary:\n" + aiPara + "\n"));
-        sendMail(to, cc, EmailTemplates.subjectEscCTO(p), body);
+        return fanOut(channels,
+                () -> aiVoiceScript(p, inc, "CTO", "executive concise"),
+                speech -> callOnce(phoneOf(p.getHead()), paged, () -> voiceCallService.callCTO(p, speech)),
+                () -> aiEmailPara(p, inc, "CTO"),
+                aiPara -> sendMail(to, cc, EmailTemplates.subjectEscCTO(p), withAiSummary(EmailTemplates.bodyEscCTO(p, inc), aiPara)));
     }
 
-    @Transactional(readOnly = true)
-    public void notifyResolved(Project p, Incident inc) {
-        if (voiceCallService.isConfigured()) {
-            String speech = aiVoiceScript(p, inc, "All", "positive and succinct");
-            voiceCallService.callDevelopers(p, speech);
-            voiceCallService.callLead(p, speech);
-        }
+    public Set<AlertChannel> notifyResolved(Project p, Incident inc, Set<AlertChannel> channels, Set<String> paged) {
         List<String> to = new ArrayList<>(devEmails(p));
         String lead = leadEmail(p);
         if (lead != null) to.add(lead);
@@ -177,9 +306,84 @@ Return only the speech text.
         String cto = ctoEmail(p);
         if (cto != null) cc.add(cto);
 
-        String aiPara = aiEmailPara(p, inc, "All");
-        String body = EmailTemplates.bodyResolved(p, inc)
-                + (aiPara.isBlank() ? "" : ("\nAI summary:\n" + aiPara + "\n"));
-        sendMail(to, cc, EmailTemplates.subjectResolved(p), body);
+        return fanOut(channels,
+                () -> aiVoiceScript(p, inc, "All", "positive and succinct"),
+                speech -> {
+                    boolean devs = callDevelopers(p, speech, null, paged);
+                    return callOnce(phoneOf(p.getTeamLead()), paged, () -> voiceCallService.callLead(p, speech)) && devs;
+                },
+                () -> aiEmailPara(p, inc, "All"),
+                aiPara -> sendMail(to, cc, EmailTemplates.subjectResolved(p), withAiSummary(EmailTemplates.bodyResolved(p, inc), aiPara)));
+    }
+
+    // paged: numbers earlier attempts reached; they are not called again and newly reached ones are added
+    public Set<AlertChannel> notify(AlertType type, Project p, Incident inc, Set<AlertChannel> channels, Set<String> paged) {
+        return switch (type) {
+            case NEW_INCIDENT -> notifyNewIncident(p, inc, channels, paged);
+            case ESCALATION_LEAD -> notifyEscalationLead(p, inc, channels, paged);
+            case ESCALATION_CTO -> notifyEscalationCTO(p, inc, channels, paged);
+            case RESOLVED -> notifyResolved(p, inc, channels, paged);
+        };
+    }
+
+    // Several alerts at once: every person gets one mail and at most one call covering all of their
+    // alerts, and the AI paragraph is generated once. Returns the channels that went out, per item.
+    public List<Set<AlertChannel>> notifyDigest(List<DigestItem> items) {
+        Map<String, List<DigestItem>> byEmail = new LinkedHashMap<>();
+        Map<String, List<DigestItem>> byPhone = new LinkedHashMap<>();
+        boolean voice = voiceCallService.isConfigured();
+        for (DigestItem it : items) {
+            if (it.channels().contains(AlertChannel.MAIL)) {
+                for (String email : mailRecipients(it.project())) byEmail.computeIfAbsent(email, k -> new ArrayList<>()).add(it);
+            }
+            if (voice && it.channels().contains(AlertChannel.VOICE)) {
+                for (String phone : voiceRecipients(it.type(), it.project())) {
+                    if (!it.paged().contains(phone)) byPhone.computeIfAbsent(phone, k -> new ArrayList<>()).add(it);
+                }
+            }
+        }
+
+        CompletableFuture<String> aiPara = byEmail.isEmpty() ? CompletableFuture.completedFuture("")
+                : CompletableFuture.supplyAsync(() -> aiDigestPara(items), aiExecutor);
+        Map<String, CompletableFuture<Boolean>> mails = new LinkedHashMap<>();
+        byEmail.forEach((email, own) -> mails.put(email, aiPara.thenApplyAsync(para -> {
+            sendMail(List.of(email), null, EmailTemplates.subjectDigest(own), withAiSummary(EmailTemplates.bodyDigest(own), para));
+            return true;
+        }, mailExecutor)));
+        Map<String, CompletableFuture<Boolean>> calls = new LinkedHashMap<>();
+        byPhone.forEach((phone, own) -> calls.put(phone, CompletableFuture.supplyAsync(() -> {
+            boolean ok = voiceCallService.callNumber(phone, voiceDigest(own));
+            if (ok) own.forEach(it -> it.paged().add(phone));
+            return ok;
+        }, voiceExecutor)));
+
+        Set<DigestItem> mailFailed = failedItems(mails, byEmail, "Digest mail");
+        Set<DigestItem> voiceFailed = failedItems(calls, byPhone, "Digest call");
+        List<Set<AlertChannel>> sent = new ArrayList<>(items.size());
+        for (DigestItem it : items) {
+            Set<AlertChannel> done = EnumSet.noneOf(AlertChannel.class);
+            if (it.channels().contains(AlertChannel.MAIL) && !mailFailed.contains(it)) done.add(AlertChannel.MAIL);
+            if (it.channels().contains(AlertChannel.VOICE) && !voiceFailed.contains(it)) done.add(AlertChannel.VOICE);
+            sent.add(done);
+        }
+        System.out.println("Alert digest: " + items.size() + " alerts -> " + mails.size() + " mails, " + calls.size() + " calls");
+        return sent;
+    }
+
+    // items that had at least one recipient whose send failed
+    private Set<DigestItem> failedItems(Map<String, CompletableFuture<Boolean>> sends,
+                                        Map<String, List<DigestItem>> byRecipient, String what) {
+        Set<DigestItem> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        sends.forEach((to, f) -> {
+            boolean ok;
+            try {
+                ok = f.join();
+            } catch (Exception e) {
+                System.err.println(what + " to " + to + " failed err=" + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+                ok = false;
+            }
+            if (!ok) failed.addAll(byRecipient.get(to));
+        });
+        return failed;
     }
 }
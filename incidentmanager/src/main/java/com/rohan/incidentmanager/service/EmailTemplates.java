@@ -1,24 +1,26 @@
 package com.rohan.incidentmanager.service;
 
+import com.rohan.incidentmanager.entity.AlertType;
 import com.rohan.incidentmanager.entity.Incident;
 import com.rohan.incidentmanager.entity.Project;
+import com.rohan.incidentmanager.util.MailTemplate;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
+// Alert mail subjects and bodies; the templates are compiled once, each send only fills in the values.
 public class EmailTemplates {
 
-    public static String subjectNewDown(Project p) {
-        return "[INCIDENT] " + p.getProjectName() + " is DOWN";
-    }
+    private static final MailTemplate SUBJECT_NEW_DOWN = MailTemplate.compile("[INCIDENT] {project} is DOWN", "project");
 
-    public static String bodyNewDown(Project p, Incident inc) {
-        return """
+    private static final MailTemplate BODY_NEW_DOWN = MailTemplate.compile("""
 Service is DOWN.
 
-Project: %s
-Health URL: %s
-Detected at: %s
-Reason: %s
+Project: {project}
+Health URL: {healthUrl}
+Detected at: {detectedAt}
+Reason: {reason}
 
 Action:
 - Developer: start investigation
@@ -26,63 +28,121 @@ Action:
 - CTO: visibility only
 
 This incident is now active (level 1).
-""".formatted(p.getProjectName(), p.getHealthUrl(), inc.getCreatedAt(), inc.getReason());
-    }
+""", "project", "healthUrl", "detectedAt", "reason");
 
-    public static String subjectEscLead(Project p) {
-        return "[ESCALATION L2] Lead attention required - " + p.getProjectName();
-    }
+    private static final MailTemplate SUBJECT_ESC_LEAD =
+            MailTemplate.compile("[ESCALATION L2] Lead attention required - {project}", "project");
 
-    public static String bodyEscLead(Project p, Incident inc) {
-        long mins = Duration.between(inc.getCreatedAt(), LocalDateTime.now()).toMinutes();
-        return """
+    private static final MailTemplate BODY_ESC_LEAD = MailTemplate.compile("""
 Incident still OPEN.
 
-Project: %s
-Health URL: %s
-Open since: %s
-Elapsed: %d minutes
+Project: {project}
+Health URL: {healthUrl}
+Open since: {openSince}
+Elapsed: {minutes} minutes
 
 Action:
 - Lead: acknowledge, coordinate fix, pause if maintenance
 - Dev: continue remediation
-""".formatted(p.getProjectName(), p.getHealthUrl(), inc.getCreatedAt(), mins);
-    }
+""", "project", "healthUrl", "openSince", "minutes");
 
-    public static String subjectEscCTO(Project p) {
-        return "[ESCALATION L3] CTO escalation - " + p.getProjectName();
-    }
+    private static final MailTemplate SUBJECT_ESC_CTO = MailTemplate.compile("[ESCALATION L3] CTO escalation - {project}", "project");
 
-    public static String bodyEscCTO(Project p, Incident inc) {
-        long mins = Duration.between(inc.getCreatedAt(), LocalDateTime.now()).toMinutes();
-        return """
+    private static final MailTemplate BODY_ESC_CTO = MailTemplate.compile("""
 High priority escalation.
 
-Project: %s
-Health URL: %s
-Open since: %s
-Elapsed: %d minutes
+Project: {project}
+Health URL: {healthUrl}
+Open since: {openSince}
+Elapsed: {minutes} minutes
 
 Action:
 - CTO: coordinate with Lead for incident command
 - Lead/Dev: provide recovery ETA
-""".formatted(p.getProjectName(), p.getHealthUrl(), inc.getCreatedAt(), mins);
+""", "project", "healthUrl", "openSince", "minutes");
+
+    private static final MailTemplate SUBJECT_RESOLVED = MailTemplate.compile("[RESOLVED] {project} is UP", "project");
+
+    private static final MailTemplate BODY_RESOLVED = MailTemplate.compile("""
+Service recovered.
+
+Project: {project}
+Health URL: {healthUrl}
+Total downtime: {minutes} minutes
+
+Incident marked resolved.
+""", "project", "healthUrl", "minutes");
+
+    private static final MailTemplate BODY_DIGEST = MailTemplate.compile("""
+Several alerts fired within a few seconds, so they are sent together.
+
+{items}
+Action:
+- Developer: start with the shared dependencies of these projects
+- Lead: acknowledge, coordinate fix, pause if maintenance
+- CTO: visibility only unless escalated
+""", "items");
+
+    private static final MailTemplate DIGEST_LINE = MailTemplate.compile("- {project} ({healthUrl}): {what}\n",
+            "project", "healthUrl", "what");
+
+    private static long minutesSince(Incident inc) {
+        return Duration.between(inc.getCreatedAt(), LocalDateTime.now()).toMinutes();
+    }
+
+    public static String subjectNewDown(Project p) {
+        return SUBJECT_NEW_DOWN.render(p.getProjectName());
+    }
+
+    public static String bodyNewDown(Project p, Incident inc) {
+        return BODY_NEW_DOWN.render(p.getProjectName(), p.getHealthUrl(), inc.getCreatedAt(), inc.getReason());
+    }
+
+    public static String subjectEscLead(Project p) {
+        return SUBJECT_ESC_LEAD.render(p.getProjectName());
+    }
+
+    public static String bodyEscLead(Project p, Incident inc) {
+        return BODY_ESC_LEAD.render(p.getProjectName(), p.getHealthUrl(), inc.getCreatedAt(), minutesSince(inc));
+    }
+
+    public static String subjectEscCTO(Project p) {
+        return SUBJECT_ESC_CTO.render(p.getProjectName());
+    }
+
+    public static String bodyEscCTO(Project p, Incident inc) {
+        return BODY_ESC_CTO.render(p.getProjectName(), p.getHealthUrl(), inc.getCreatedAt(), minutesSince(inc));
     }
 
     public static String subjectResolved(Project p) {
-        return "[RESOLVED] " + p.getProjectName() + " is UP";
+        return SUBJECT_RESOLVED.render(p.getProjectName());
     }
 
     public static String bodyResolved(Project p, Incident inc) {
-        long mins = Duration.between(inc.getCreatedAt(), LocalDateTime.now()).toMinutes();
-        return """
-Service recovered.
+        return BODY_RESOLVED.render(p.getProjectName(), p.getHealthUrl(), minutesSince(inc));
+    }
 
-Project: %s
-Health URL: %s
-Total downtime: %d minutes
+    public static String subjectDigest(List<AlertService.DigestItem> items) {
+        long resolved = items.stream().filter(it -> it.type() == AlertType.RESOLVED).count();
+        long open = items.size() - resolved;
+        if (resolved == 0) return "[INCIDENT DIGEST] " + open + (open == 1 ? " project needs" : " projects need") + " attention";
+        if (open == 0) return "[RESOLVED DIGEST] " + resolved + (resolved == 1 ? " project is" : " projects are") + " UP";
+        return "[INCIDENT DIGEST] " + open + " open, " + resolved + " resolved";
+    }
 
-Incident marked resolved.
-""".formatted(p.getProjectName(), p.getHealthUrl(), mins);
+    public static String bodyDigest(List<AlertService.DigestItem> items) {
+        StringBuilder lines = new StringBuilder();
+        for (AlertService.DigestItem it : items) {
+            Project p = it.project();
+            Incident inc = it.incident();
+            String what = switch (it.type()) {
+                case NEW_INCIDENT -> "DOWN since " + inc.getCreatedAt() + " - " + inc.getReason();
+                case ESCALATION_LEAD -> "ESCALATION L2, open " + minutesSince(inc) + " minutes";
+                case ESCALATION_CTO -> "ESCALATION L3, open " + minutesSince(inc) + " minutes";
+                case RESOLVED -> "RESOLVED after " + minutesSince(inc) + " minutes";
+            };
+            lines.append(DIGEST_LINE.render(p.getProjectName(), p.getHealthUrl(), what));
+        }
+        return BODY_DIGEST.render(lines);
     }
 }
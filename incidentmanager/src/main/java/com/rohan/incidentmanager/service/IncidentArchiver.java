@@ -0,0 +1,155 @@
+package com.rohan.incidentmanager.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves closed incidents whose project's retention (incidentRetentionDays,
+ * else incidents.archive.retentionDays) has passed from incidents to
+ * incidents_archive, oldest first. Each batch is copied and deleted in one
+ * transaction. Runs on the leader only, on a thread of its own so the
+ * scheduler thread (probe ticks, escalations) is never held up; between
+ * batches it sleeps at least as long as the batch took, so it never keeps the
+ * database busy more than half the time.
+ */
+@Service
+public class IncidentArchiver {
+
+    private static final String COLUMNS =
+            "id, project_id, reason, created_at, acknowledged, escalation_level, last_escalation_at, resolved_at";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private ShardCoordinator shard;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Value("${incidents.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${incidents.archive.retentionDays:90}")
+    private int defaultRetentionDays;
+
+    @Value("${incidents.archive.batchSize:500}")
+    private int batchSize;
+
+    @Value("${incidents.archive.maxBatchesPerRun:40}")
+    private int maxBatchesPerRun;
+
+    @Value("${incidents.archive.pauseMs:200}")
+    private long pauseMs;
+
+    private ThreadPoolExecutor worker;
+    private TransactionTemplate tx;
+    private Counter archived;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void init() {
+        // one run at a time; a trigger while the previous run is still going is skipped
+        worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>(), r -> {
+            Thread t = new Thread(r, "incident-archiver");
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        tx = new TransactionTemplate(transactionManager);
+        archived = meterRegistry.counter("incidents.archived");
+        batchTimer = meterRegistry.timer("incidents.archive.batch");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    @Scheduled(cron = "${incidents.archive.cron:0 41 * * * *}")
+    public void trigger() {
+        if (!enabled || !shard.isLeader()) return;
+        worker.execute(this::archive);
+    }
+
+    // Archives up to maxBatchesPerRun batches; returns how many incidents were moved.
+    public int archive() {
+        int total = 0;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // rows are walked in resolved_at order; rows behind the cursor that were skipped
+            // (a project with a longer retention) aren't looked at again in this run
+            LocalDateTime cursor = LocalDateTime.of(1970, 1, 1, 0, 0);
+            for (int b = 0; b < Math.max(1, maxBatchesPerRun) && !Thread.currentThread().isInterrupted(); b++) {
+                long start = System.nanoTime();
+                List<Object[]> batch = nextBatch(now, cursor);
+                if (batch.isEmpty()) break;
+                List<Long> ids = new ArrayList<>(batch.size());
+                for (Object[] row : batch) ids.add((Long) row[0]);
+                cursor = (LocalDateTime) batch.get(batch.size() - 1)[1];
+
+                Integer moved = tx.execute(status -> move(ids, now));
+                total += moved == null ? 0 : moved;
+                long took = System.nanoTime() - start;
+                batchTimer.record(took, TimeUnit.NANOSECONDS);
+                if (batch.size() < batchSize) break;
+                Thread.sleep(Math.max(pauseMs, TimeUnit.NANOSECONDS.toMillis(took)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            System.err.println("Incident archival failed after " + total + " incidents err=" + ex.getMessage());
+        }
+        archived.increment(total);
+        if (total > 0) System.out.println("Archived " + total + " closed incidents");
+        return total;
+    }
+
+    // [id, resolved_at] of the next closed incidents past their project's retention, oldest first
+    private List<Object[]> nextBatch(LocalDateTime now, LocalDateTime cursor) {
+        // the default is an int from config, inlined so coalesce() has a typed second argument
+        String retention = "coalesce(p.incident_retention_days, " + defaultRetentionDays + ")";
+        return jdbcTemplate.query("select i.id, i.resolved_at from incidents i join projects p on p.id = i.project_id "
+                        + "where i.acknowledged = true and i.resolved_at >= ? and i.resolved_at < ? "
+                        + "and " + retention + " > 0 "
+                        + "and timestampadd(DAY, " + retention + ", i.resolved_at) < ? "
+                        + "order by i.resolved_at limit ?",
+                (rs, n) -> new Object[]{rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()},
+                Timestamp.valueOf(cursor), Timestamp.valueOf(now.minusDays(minRetentionDays())),
+                Timestamp.valueOf(now), Math.max(1, batchSize));
+    }
+
+    // the shortest retention in use bounds the index range the batch query has to look at
+    private int minRetentionDays() {
+        Integer shortest = jdbcTemplate.queryForObject(
+                "select min(incident_retention_days) from projects where incident_retention_days > 0", Integer.class);
+        int days = defaultRetentionDays > 0 ? defaultRetentionDays : Integer.MAX_VALUE;
+        if (shortest != null) days = Math.min(days, shortest);
+        // retention off everywhere: nothing qualifies
+        return days == Integer.MAX_VALUE ? 365_000 : days;
+    }
+
+    private int move(List<Long> ids, LocalDateTime archivedAt) {
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(Timestamp.valueOf(archivedAt));
+        args.addAll(ids);
+        jdbcTemplate.update("insert into incidents_archive (" + COLUMNS + ", archived_at) select " + COLUMNS + ", ? "
+                + "from incidents where acknowledged = true and id in (" + in + ")", args.toArray());
+        return jdbcTemplate.update("delete from incidents where acknowledged = true and id in (" + in + ")", ids.toArray());
+    }
+}
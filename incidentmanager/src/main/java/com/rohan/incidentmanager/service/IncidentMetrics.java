@@ -0,0 +1,32 @@
+package com.rohan.incidentmanager.service;
+
+import com.rohan.incidentmanager.entity.Incident;
+import com.rohan.incidentmanager.event.IncidentLifecycleEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Counts incident transitions (incidents.transitions, tagged with the type and
+ * the escalation level the incident had at that point) and how long closed
+ * incidents were open (incident.duration).
+ */
+@Component
+public class IncidentMetrics {
+
+    @Autowired private MeterRegistry meterRegistry;
+
+    @EventListener
+    public void onIncident(IncidentLifecycleEvent event) {
+        Incident inc = event.getIncident();
+        meterRegistry.counter("incidents.transitions",
+                "type", event.getType().name(),
+                "level", String.valueOf(inc.getEscalationLevel())).increment();
+        if (event.getType() == IncidentLifecycleEvent.Type.CLOSED && inc.getCreatedAt() != null && inc.getResolvedAt() != null) {
+            meterRegistry.timer("incident.duration").record(Duration.between(inc.getCreatedAt(), inc.getResolvedAt()));
+        }
+    }
+}
@@ -1,40 +1,136 @@
 package com.rohan.incidentmanager.service;
 
+import com.rohan.incidentmanager.dto.IncidentSummaryDTO;
+import com.rohan.incidentmanager.dto.KeysetPage;
 import com.rohan.incidentmanager.entity.Incident;
 import com.rohan.incidentmanager.entity.Project;
+import com.rohan.incidentmanager.event.IncidentLifecycleEvent;
+import com.rohan.incidentmanager.repository.IncidentArchiveRepository;
 import com.rohan.incidentmanager.repository.IncidentRepository;
 import com.rohan.incidentmanager.repository.ProjectRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+/**
+ * Incident transitions are atomic without locks: opening relies on the unique
+ * active_key column (one active incident per project), escalating and closing
+ * are conditional updates that only succeed for the first caller. Each
+ * transition that happened is published as an IncidentLifecycleEvent.
+ */
 @Service
 public class IncidentService {
     @Autowired private IncidentRepository incidentRepository;
+    @Autowired private IncidentArchiveRepository archiveRepository;
     @Autowired private ProjectRepository projectRepository;
+    @Autowired private ApplicationEventPublisher events;
 
-    public Incident createIncident(Project project, String reason) {
+    // Empty when the project already has an active incident (opened by another tick or node).
+    public Optional<Incident> openIncident(Project project, String reason) {
         Incident inc = new Incident();
         inc.setProject(project);
         inc.setReason(reason);
         inc.setEscalationLevel(0);
         inc.setAcknowledged(false);
-        return incidentRepository.save(inc);
+        inc.setActiveKey(project.getId());
+        try {
+            inc = incidentRepository.save(inc);
+        } catch (DataIntegrityViolationException e) {
+            return Optional.empty();
+        }
+        events.publishEvent(new IncidentLifecycleEvent(IncidentLifecycleEvent.Type.OPENED, inc));
+        return Optional.of(inc);
     }
 
     public Optional<Incident> findActiveForProject(Project project) {
         return incidentRepository.findFirstByProjectAndAcknowledgedFalseOrderByCreatedAtDesc(project);
     }
 
-    // NEW: generic save so scheduler can persist updates (ack/escalation timestamps/levels)
-    public Incident save(Incident inc) {
-        return incidentRepository.save(inc);
+    // status: open, closed or null for both; from/to bound createdAt; pages go from newest to oldest.
+    // A project's archived incidents all have lower ids than its live ones, so pages run on into the archive.
+    public KeysetPage<IncidentSummaryDTO> history(Long projectId, String status, LocalDateTime from, LocalDateTime to,
+                                                  Integer minLevel, Long beforeId, int size) {
+        Boolean acknowledged;
+        if (status == null || status.isBlank() || "all".equalsIgnoreCase(status)) acknowledged = null;
+        else if ("open".equalsIgnoreCase(status)) acknowledged = false;
+        else if ("closed".equalsIgnoreCase(status)) acknowledged = true;
+        else throw new IllegalArgumentException("Unknown status: " + status + " (open, closed or all)");
+
+        long before = beforeId == null ? Long.MAX_VALUE : beforeId;
+        int level = minLevel == null ? 0 : minLevel;
+        List<IncidentSummaryDTO> rows = incidentRepository.findHistory(projectId, before, acknowledged, from, to,
+                level, Limit.of(size + 1));
+        if (rows.size() <= size && !Boolean.FALSE.equals(acknowledged)) {
+            rows = new ArrayList<>(rows);
+            if (!rows.isEmpty()) before = rows.get(rows.size() - 1).getId();
+            rows.addAll(archiveRepository.findHistory(projectId, before, from, to, level, Limit.of(size + 1 - rows.size())));
+        }
+        Long next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            next = rows.get(size - 1).getId();
+        }
+        return new KeysetPage<>(rows, next);
+    }
+
+    public List<Incident> findAllActive() {
+        return incidentRepository.findAllActive();
+    }
+
+    // True if this call raised the level; false if it was already there or the incident is closed.
+    public boolean escalate(Incident inc, int level) {
+        LocalDateTime now = LocalDateTime.now();
+        if (incidentRepository.escalate(inc.getId(), level, now) != 1) return false;
+        inc.setEscalationLevel(level);
+        inc.setLastEscalationAt(now);
+        events.publishEvent(new IncidentLifecycleEvent(IncidentLifecycleEvent.Type.ESCALATED, inc));
+        return true;
     }
 
-    public void acknowledgeIncident(Long incidentId) {
+    // Auto-resolve after recovery; true only for the caller that closed it.
+    public boolean resolve(Incident inc) {
+        return close(inc);
+    }
+
+    public boolean acknowledgeIncident(Long incidentId) {
         Incident inc = incidentRepository.findById(incidentId)
                 .orElseThrow(() -> new RuntimeException("Incident not found"));
+        return close(inc);
+    }
+
+    private boolean close(Incident inc) {
+        LocalDateTime now = LocalDateTime.now();
+        if (incidentRepository.close(inc.getId(), now) != 1) return false;
         inc.setAcknowledged(true);
-        incidentRepository.save(inc);
+        inc.setActiveKey(null);
+        inc.setResolvedAt(now);
+        events.publishEvent(new IncidentLifecycleEvent(IncidentLifecycleEvent.Type.CLOSED, inc));
+        return true;
+    }
+
+    // Incidents opened before active_key existed get it on startup (the newest one per project).
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillActiveKeys() {
+        Set<Long> seen = new HashSet<>();
+        for (Incident inc : incidentRepository.findAllActive()) {
+            boolean newest = seen.add(inc.getProject().getId());
+            if (inc.getActiveKey() != null || !newest) continue;
+            try {
+                incidentRepository.claimActiveKey(inc.getId());
+            } catch (DataIntegrityViolationException e) {
+                // another active incident already holds the key
+            }
+        }
     }
 }
@@ -0,0 +1,61 @@
+package com.rohan.incidentmanager.service;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-bucket latency histogram: 10ms buckets up to 1s, 100ms up to 10s,
+ * 1s up to 60s, then one overflow bucket. Percentiles are bucket upper bounds
+ * (capped at the max seen), which is plenty for dashboards.
+ */
+public class LatencyHistogram {
+
+    private static final int[] UPPER_BOUNDS = buildBounds();
+
+    private final int[] counts = new int[UPPER_BOUNDS.length + 1];
+    private long count;
+    private long sum;
+    private long max;
+
+    private static int[] buildBounds() {
+        int[] b = new int[100 + 90 + 50];
+        int i = 0;
+        for (int v = 10; v <= 1000; v += 10) b[i++] = v;
+        for (int v = 1100; v <= 10000; v += 100) b[i++] = v;
+        for (int v = 11000; v <= 60000; v += 1000) b[i++] = v;
+        return b;
+    }
+
+    public void record(long latencyMs) {
+        int idx = Arrays.binarySearch(UPPER_BOUNDS, (int) Math.min(latencyMs, Integer.MAX_VALUE));
+        if (idx < 0) idx = -idx - 1;
+        counts[idx]++;
+        count++;
+        sum += latencyMs;
+        max = Math.max(max, latencyMs);
+    }
+
+    public long percentile(double p) {
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(p / 100.0 * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < UPPER_BOUNDS.length ? Math.min(UPPER_BOUNDS[i], max) : max;
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long mean() {
+        return count == 0 ? 0 : sum / count;
+    }
+}
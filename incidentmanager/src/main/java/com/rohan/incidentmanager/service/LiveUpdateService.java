@@ -0,0 +1,237 @@
+package com.rohan.incidentmanager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rohan.incidentmanager.entity.Incident;
+import com.rohan.incidentmanager.entity.LiveEvent;
+import com.rohan.incidentmanager.entity.Project;
+import com.rohan.incidentmanager.event.IncidentLifecycleEvent;
+import com.rohan.incidentmanager.event.ProjectStatusEvent;
+import com.rohan.incidentmanager.repository.LiveEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes project status changes and incident transitions to dashboards over
+ * SSE. Each update goes to the lead, head and developers of its project that
+ * have a stream open. Sending runs on one thread of its own, so slow clients
+ * never hold up the probe tick and each client sees updates in order; when
+ * that thread is behind, updates are dropped (the next one, or a reload,
+ * brings the client up to date).
+ * With several backend nodes the update is also written to live_events and
+ * the other nodes deliver it to their own clients.
+ */
+@Service
+public class LiveUpdateService {
+
+    @Autowired private ProjectRecipientCache recipientCache;
+    @Autowired private LiveEventRepository liveEventRepository;
+    @Autowired private ShardCoordinator shard;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Value("${live.timeoutMs:1800000}")
+    private long timeoutMs;
+
+    @Value("${live.maxStreamsPerUser:5}")
+    private int maxStreamsPerUser;
+
+    @Value("${live.queueCapacity:10000}")
+    private int queueCapacity;
+
+    @Value("${live.relayRetentionMs:300000}")
+    private long relayRetentionMs;
+
+    @Value("${live.relayLookbackMs:10000}")
+    private long relayLookbackMs;
+
+    // one update for the clients of one project; data is the SSE payload
+    public record Update(String event, Long projectId, Map<String, Object> data) {}
+
+    // user email -> open streams, oldest first
+    private final Map<String, List<SseEmitter>> streams = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor sender;
+    private Counter dropped;
+    // live_events ids seen within the look-back window -> their createdAt; null while this is the only node
+    private Map<Long, LocalDateTime> relayed;
+
+    @PostConstruct
+    public void init() {
+        dropped = meterRegistry.counter("live.updates.dropped");
+        sender = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+            Thread t = new Thread(r, "live-update");
+            t.setDaemon(true);
+            return t;
+        }, (r, ex) -> dropped.increment());
+        meterRegistry.gauge("live.streams", streams, s -> s.values().stream().mapToInt(List::size).sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        streams.values().forEach(list -> list.forEach(SseEmitter::complete));
+    }
+
+    public SseEmitter subscribe(String email) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        List<SseEmitter> list = streams.computeIfAbsent(email, k -> new CopyOnWriteArrayList<>());
+        list.add(emitter);
+        // a user with too many tabs open loses the oldest stream
+        while (list.size() > Math.max(1, maxStreamsPerUser)) {
+            SseEmitter oldest = list.remove(0);
+            oldest.complete();
+        }
+        Runnable remove = () -> {
+            list.remove(emitter);
+            if (list.isEmpty()) streams.remove(email, list);
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        try {
+            emitter.send(SseEmitter.event().name("ready").data(""));
+        } catch (Exception e) {
+            remove.run();
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onStatus(ProjectStatusEvent event) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("projectId", event.getProjectId());
+        data.put("status", event.getStatus());
+        data.put("previousStatus", event.getPreviousStatus());
+        data.put("checkedAt", String.valueOf(event.getCheckedAt()));
+        publish(new Update("status", event.getProjectId(), data));
+    }
+
+    @EventListener
+    public void onIncident(IncidentLifecycleEvent event) {
+        Incident inc = event.getIncident();
+        Long projectId = inc.getProject().getId();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("type", event.getType().name());
+        data.put("incidentId", inc.getId());
+        data.put("projectId", projectId);
+        String reason = inc.getReason();
+        data.put("reason", reason != null && reason.length() > 500 ? reason.substring(0, 500) : reason);
+        data.put("escalationLevel", inc.getEscalationLevel());
+        data.put("acknowledged", inc.isAcknowledged());
+        data.put("createdAt", String.valueOf(inc.getCreatedAt()));
+        data.put("resolvedAt", inc.getResolvedAt() == null ? null : String.valueOf(inc.getResolvedAt()));
+        publish(new Update("incident", projectId, data));
+    }
+
+    private void publish(Update update) {
+        sender.execute(() -> {
+            if (shard.nodeCount() > 1) relay(update);
+            deliver(update);
+        });
+    }
+
+    private void relay(Update update) {
+        try {
+            LiveEvent row = new LiveEvent();
+            row.setOriginNode(shard.getNodeId());
+            row.setPayload(objectMapper.writeValueAsString(update));
+            liveEventRepository.save(row);
+        } catch (Exception e) {
+            System.err.println("Live update relay failed err=" + e.getMessage());
+        }
+    }
+
+    private void deliver(Update update) {
+        if (streams.isEmpty()) return;
+        Project p = recipientCache.get(update.projectId());
+        if (p == null) return;
+        for (String email : ProjectService.memberEmails(p)) {
+            List<SseEmitter> list = streams.get(email);
+            if (list == null) continue;
+            for (SseEmitter emitter : list) {
+                try {
+                    emitter.send(SseEmitter.event().name(update.event()).data(update.data(), MediaType.APPLICATION_JSON));
+                } catch (Exception e) {
+                    // client went away; the emitter's callbacks remove it
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    // Deliver updates other nodes wrote to live_events. Only runs while there is more than one node.
+    // Ids are handed out at insert but become visible at commit, so a lower id can show up after a
+    // higher one: every poll rereads the rows created within live.relayLookbackMs and skips the ids
+    // already seen, rather than only reading past the highest id.
+    @Scheduled(fixedDelayString = "${live.relayPollMs:1000}")
+    public void pollRelay() {
+        if (shard.nodeCount() <= 1) {
+            relayed = null;
+            return;
+        }
+        try {
+            LocalDateTime since = LocalDateTime.now().minus(Duration.ofMillis(relayLookbackMs));
+            // just became clustered: start from now, older rows were delivered by whoever was running then
+            boolean deliver = relayed != null;
+            if (relayed == null) relayed = new HashMap<>();
+            relayed.values().removeIf(createdAt -> createdAt.isBefore(since));
+            long afterId = 0;
+            List<LiveEvent> page;
+            do {
+                page = liveEventRepository.findTop500ByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(since, afterId);
+                for (LiveEvent row : page) {
+                    afterId = row.getId();
+                    if (relayed.putIfAbsent(row.getId(), row.getCreatedAt()) != null) continue;
+                    if (!deliver || shard.getNodeId().equals(row.getOriginNode())) continue;
+                    Update update = objectMapper.readValue(row.getPayload(), Update.class);
+                    sender.execute(() -> deliver(update));
+                }
+            } while (page.size() == 500);
+        } catch (Exception e) {
+            System.err.println("Live update relay poll failed err=" + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${live.relayRetentionMs:300000}")
+    public void purgeRelay() {
+        if (!shard.isLeader()) return;
+        try {
+            liveEventRepository.deleteOlderThan(LocalDateTime.now().minus(Duration.ofMillis(relayRetentionMs)));
+        } catch (Exception e) {
+            System.err.println("Live update relay purge failed err=" + e.getMessage());
+        }
+    }
+
+    // comment lines keep idle streams open through proxies and reveal dead clients
+    @Scheduled(fixedDelayString = "${live.heartbeatMs:20000}")
+    public void heartbeat() {
+        streams.values().forEach(list -> list.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        }));
+    }
+}
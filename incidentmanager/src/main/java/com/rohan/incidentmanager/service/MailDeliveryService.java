@@ -0,0 +1,315 @@
+package com.rohan.incidentmanager.service;
+
+import com.rohan.incidentmanager.entity.MailOutbox;
+import com.rohan.incidentmanager.repository.MailOutboxRepository;
+import com.rohan.incidentmanager.util.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound mail goes through the mail_outbox table: enqueue() only inserts a
+ * row. Sender threads (mail.delivery.connections of them, on every node) lease
+ * due rows in batches and send them over an SMTP connection each thread keeps
+ * open between batches, so a burst of alerts pays for one connect + STARTTLS +
+ * AUTH per thread instead of one per mail. A connection is closed after
+ * mail.delivery.idleCloseMs without work or maxMessagesPerConnection mails.
+ * Failed mails are retried with exponential backoff up to maxAttempts; a mail
+ * that was sent but not yet marked (crash mid-batch) goes out again once its
+ * lease expires.
+ */
+@Service
+public class MailDeliveryService {
+
+    @Autowired private MailOutboxRepository outboxRepository;
+    @Autowired private JavaMailSender mailSender;
+    @Autowired private ShardCoordinator shard;
+    @Autowired private MeterRegistry meterRegistry;
+    // replaced by a stub in the scale test; null means real SMTP through mailSender's session
+    @Autowired(required = false) private SmtpConnector connector;
+
+    @Value("${spring.mail.username:}")
+    private String from;
+
+    @Value("${mail.sendsPerSecond:10}")
+    private double sendsPerSecond;
+
+    @Value("${mail.delivery.connections:2}")
+    private int connections;
+
+    @Value("${mail.delivery.batchSize:50}")
+    private int batchSize;
+
+    @Value("${mail.delivery.pollMs:1000}")
+    private long pollMs;
+
+    @Value("${mail.delivery.idleCloseMs:30000}")
+    private long idleCloseMs;
+
+    @Value("${mail.delivery.maxMessagesPerConnection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${mail.delivery.leaseMs:120000}")
+    private long leaseMs;
+
+    @Value("${mail.delivery.maxAttempts:5}")
+    private int maxAttempts;
+
+    @Value("${mail.delivery.retryBaseMs:30000}")
+    private long retryBaseMs;
+
+    @Value("${mail.delivery.retentionDays:7}")
+    private int retentionDays;
+
+    // One open SMTP connection.
+    public interface SmtpConnection {
+        void send(MimeMessage message) throws MessagingException;
+        boolean isConnected();
+        void close();
+    }
+
+    public interface SmtpConnector {
+        SmtpConnection connect() throws MessagingException;
+    }
+
+    // the connection one sender thread keeps between batches
+    private class PooledConnection {
+        SmtpConnection connection;
+        long lastUsedMs;
+        int sent;
+
+        SmtpConnection get() throws MessagingException {
+            if (connection != null && (!connection.isConnected() || sent >= Math.max(1, maxMessagesPerConnection))) close();
+            if (connection == null) {
+                connection = connector != null ? connector.connect() : connectTransport();
+                opened.increment();
+                sent = 0;
+            }
+            return connection;
+        }
+
+        void closeIfIdle() {
+            if (connection != null && System.currentTimeMillis() - lastUsedMs > idleCloseMs) close();
+        }
+
+        void close() {
+            if (connection != null) connection.close();
+            connection = null;
+        }
+    }
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+    // bumped by enqueue() so idle senders wake up at once instead of after pollMs
+    private final Object signal = new Object();
+    private long enqueued;
+
+    private RateLimiter limiter;
+    private Counter opened;
+    private Timer sendOk;
+    private Timer sendFailed;
+
+    @PostConstruct
+    public void init() {
+        limiter = new RateLimiter(sendsPerSecond);
+        opened = meterRegistry.counter("mail.connections.opened");
+        sendOk = meterRegistry.timer("mail.send.latency", "outcome", "success");
+        sendFailed = meterRegistry.timer("mail.send.latency", "outcome", "error");
+        for (int i = 0; i < Math.max(1, connections); i++) {
+            Thread t = new Thread(this::workLoop, "mail-sender-" + (i + 1));
+            t.setDaemon(true);
+            t.start();
+            threads.add(t);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+    }
+
+    public void enqueue(List<String> to, List<String> cc, String subject, String body) {
+        if (to == null || to.isEmpty()) return;
+        MailOutbox row = new MailOutbox();
+        row.setToAddresses(String.join(",", to));
+        if (cc != null && !cc.isEmpty()) row.setCcAddresses(String.join(",", cc));
+        row.setSubject(subject);
+        row.setBody(body);
+        outboxRepository.save(row);
+        synchronized (signal) {
+            enqueued++;
+            signal.notifyAll();
+        }
+    }
+
+    private void workLoop() {
+        PooledConnection pooled = new PooledConnection();
+        while (running) {
+            long seen;
+            synchronized (signal) {
+                seen = enqueued;
+            }
+            try {
+                List<MailOutbox> batch = claimBatch();
+                if (batch == null) continue; // another sender leased them first; look again
+                if (batch.isEmpty()) {
+                    pooled.closeIfIdle();
+                    synchronized (signal) {
+                        if (enqueued == seen) signal.wait(pollMs);
+                    }
+                    continue;
+                }
+                deliver(batch, pooled);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                System.err.println("Mail sender loop failed err=" + e.getMessage());
+                pooled.close();
+                try {
+                    Thread.sleep(pollMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        pooled.close();
+    }
+
+    // due rows leased to this thread; null if they were all leased by someone else meanwhile
+    private List<MailOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<MailOutbox> due = outboxRepository.findDue(now, Limit.of(Math.max(1, batchSize)));
+        if (due.isEmpty()) return due;
+        List<Long> ids = due.stream().map(MailOutbox::getId).toList();
+        String token = UUID.randomUUID().toString();
+        int claimed = outboxRepository.claim(ids, token, now, now.plus(Duration.ofMillis(leaseMs)));
+        if (claimed == ids.size()) return due;
+        if (claimed == 0) return null;
+        return outboxRepository.findByIdInAndClaimToken(ids, token);
+    }
+
+    private void deliver(List<MailOutbox> batch, PooledConnection pooled) throws InterruptedException {
+        List<Long> sent = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size() && running; i++) {
+            MailOutbox row = batch.get(i);
+            MimeMessage message;
+            try {
+                message = toMessage(row);
+            } catch (MessagingException e) {
+                // malformed address: retrying won't help
+                fail(row, e, e instanceof AddressException);
+                continue;
+            }
+            SmtpConnection connection;
+            try {
+                connection = pooled.get();
+            } catch (MessagingException e) {
+                // server unreachable: the rest of the batch would fail the same way
+                System.err.println("SMTP connect failed err=" + e.getMessage());
+                for (int j = i; j < batch.size(); j++) fail(batch.get(j), e, false);
+                break;
+            }
+            limiter.acquire();
+            long start = System.nanoTime();
+            try {
+                connection.send(message);
+                sendOk.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                sent.add(row.getId());
+                pooled.sent++;
+            } catch (MessagingException | RuntimeException e) {
+                sendFailed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                fail(row, e, false);
+                if (!connection.isConnected()) pooled.close();
+            }
+            pooled.lastUsedMs = System.currentTimeMillis();
+        }
+        if (!sent.isEmpty()) outboxRepository.markSent(sent, LocalDateTime.now());
+    }
+
+    private MimeMessage toMessage(MailOutbox row) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        if (from != null && !from.isBlank()) helper.setFrom(from);
+        helper.setTo(row.getToAddresses().split(","));
+        if (row.getCcAddresses() != null && !row.getCcAddresses().isBlank()) helper.setCc(row.getCcAddresses().split(","));
+        helper.setSubject(row.getSubject());
+        helper.setText(row.getBody());
+        message.saveChanges();
+        return message;
+    }
+
+    private void fail(MailOutbox row, Exception e, boolean permanent) {
+        int attempts = row.getAttempts() + 1;
+        boolean giveUp = permanent || attempts >= maxAttempts;
+        // 1x, 2x, 4x ... retryBaseMs, at most an hour apart
+        long backoffMs = Math.min(TimeUnit.HOURS.toMillis(1), retryBaseMs << Math.min(20, attempts - 1));
+        String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        if (error.length() > 255) error = error.substring(0, 255);
+        outboxRepository.markFailed(row.getId(), giveUp ? "FAILED" : "PENDING",
+                LocalDateTime.now().plus(Duration.ofMillis(backoffMs)), error);
+        System.err.println("Mail " + row.getId() + " to " + row.getToAddresses() + (giveUp ? " gave up" : " will be retried")
+                + " attempt=" + attempts + " err=" + error);
+    }
+
+    // Same connect JavaMailSenderImpl does for every send(), but the transport is kept open.
+    private SmtpConnection connectTransport() throws MessagingException {
+        JavaMailSenderImpl impl = (JavaMailSenderImpl) mailSender;
+        Transport transport = impl.getSession().getTransport(impl.getProtocol());
+        transport.connect(impl.getHost(), impl.getPort(), impl.getUsername(), impl.getPassword());
+        return new SmtpConnection() {
+            @Override
+            public void send(MimeMessage message) throws MessagingException {
+                transport.sendMessage(message, message.getAllRecipients());
+            }
+
+            @Override
+            public boolean isConnected() {
+                return transport.isConnected();
+            }
+
+            @Override
+            public void close() {
+                try {
+                    transport.close();
+                } catch (MessagingException e) {
+                    // already gone
+                }
+            }
+        };
+    }
+
+    @Scheduled(cron = "${mail.delivery.purgeCron:0 23 * * * *}")
+    public void purge() {
+        if (!shard.isLeader()) return;
+        try {
+            outboxRepository.deleteFinishedBefore(LocalDateTime.now().minusDays(retentionDays));
+        } catch (Exception ex) {
+            System.err.println("Mail outbox purge failed err=" + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.rohan.incidentmanager.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Collects alerts for alerts.digest.windowMs after the first one arrives. A
+ * window holding a single alert is sent as before; a window holding several
+ * (a shared dependency took many projects down in one tick) goes out as a
+ * digest: one mail and at most one call per person, one AI paragraph for the
+ * whole window. A window is closed early once it holds alerts.digest.maxAlerts.
+ * A windowMs of 0 turns aggregation off.
+ */
+@Service
+public class NotificationAggregator {
+
+    @Autowired private AlertService alertService;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Value("${alerts.digest.windowMs:2000}")
+    private long windowMs;
+
+    @Value("${alerts.digest.maxAlerts:200}")
+    private int maxAlerts;
+
+    // windows being sent at the same time; sending blocks on the AI paragraph, calls and the mail outbox
+    @Value("${alerts.digest.senders:4}")
+    private int senders;
+
+    private record Pending(AlertService.DigestItem item, Consumer<Set<AlertChannel>> done) {}
+
+    private static class Window {
+        final List<Pending> alerts = new ArrayList<>();
+    }
+
+    // only closes windows; the sends run on senderPool so a slow window does not hold back the next ones
+    private ScheduledExecutorService timer;
+    private ExecutorService senderPool;
+    private Window open;
+    private DistributionSummary windowSize;
+
+    @PostConstruct
+    public void init() {
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "alert-digest");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger seq = new AtomicInteger();
+        senderPool = Executors.newFixedThreadPool(Math.max(1, senders), r -> {
+            Thread t = new Thread(r, "alert-digest-send-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        windowSize = meterRegistry.summary("alerts.digest.size");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // alerts still collecting belong to PENDING jobs, recover() sends them after the restart
+        timer.shutdownNow();
+        senderPool.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return windowMs > 0;
+    }
+
+    // done is called once with the channels that went out, from a sender thread
+    public void submit(AlertService.DigestItem item, Consumer<Set<AlertChannel>> done) {
+        Window full = null;
+        synchronized (this) {
+            if (open == null) {
+                Window w = new Window();
+                open = w;
+                timer.schedule(() -> close(w), windowMs, TimeUnit.MILLISECONDS);
+            }
+            open.alerts.add(new Pending(item, done));
+            if (open.alerts.size() >= Math.max(1, maxAlerts)) {
+                full = open;
+                open = null;
+            }
+        }
+        if (full != null) {
+            Window w = full;
+            senderPool.execute(() -> send(w));
+        }
+    }
+
+    private void close(Window w) {
+        synchronized (this) {
+            // already sent because it filled up
+            if (open != w) return;
+            open = null;
+        }
+        senderPool.execute(() -> send(w));
+    }
+
+    private void send(Window w) {
+        List<Pending> alerts = w.alerts;
+        windowSize.record(alerts.size());
+        List<Set<AlertChannel>> sent;
+        try {
+            if (alerts.size() == 1) {
+                AlertService.DigestItem it = alerts.get(0).item();
+                sent = List.of(alertService.notify(it.type(), it.project(), it.incident(), it.channels(), it.paged()));
+            } else {
+                sent = alertService.notifyDigest(alerts.stream().map(Pending::item).toList());
+            }
+        } catch (Exception e) {
+            System.err.println("Alert digest of " + alerts.size() + " alerts failed err=" + e.getMessage());
+            sent = alerts.stream().map(a -> Set.<AlertChannel>of()).toList();
+        }
+        for (int i = 0; i < alerts.size(); i++) {
+            try {
+                alerts.get(i).done().accept(sent.get(i));
+            } catch (Exception e) {
+                System.err.println("Alert digest completion failed err=" + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.rohan.incidentmanager.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+// Outcome of paging a group of people: how many calls went out and how long the last one took after detection.
+@Data
+@AllArgsConstructor
+public class PageReport {
+    private int placed;
+    private int failed;
+    private int unknown;            // timed out while being placed: the call may have gone out, so it is not retried
+    private long lastPageLatencyMs; // detection -> last successful call, -1 if none went out
+    private Set<String> settled;    // numbers a retry skips: placed or unknown
+}
@@ -0,0 +1,252 @@
+package com.rohan.incidentmanager.service;
+
+import com.rohan.incidentmanager.entity.ProbeRollup;
+import com.rohan.incidentmanager.event.ShardRebalancedEvent;
+import com.rohan.incidentmanager.repository.ProbeRollupRepository;
+import com.rohan.incidentmanager.scheduler.ProbeResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Probe latency history. Raw samples live only in a per-project ring buffer;
+ * every sample is also folded into open 1m / 1h / 1d windows, and a window is
+ * written to probe_rollups (one row, p50/p95/p99 + availability) once it closes.
+ * Dashboards read rollup rows, never raw probes.
+ */
+@Service
+public class ProbeHistoryService {
+
+    public static final Map<String, Long> RESOLUTIONS = Map.of(
+            "1m", 60_000L,
+            "1h", 3_600_000L,
+            "1d", 86_400_000L);
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ProbeRollupRepository rollupRepository;
+    @Autowired private ShardCoordinator shard;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Value("${history.recentSamples:360}")
+    private int recentSamples;
+
+    @Value("${history.retention1mDays:7}")
+    private int retention1mDays;
+
+    @Value("${history.retention1hDays:90}")
+    private int retention1hDays;
+
+    // closed windows kept while the database is unreachable; beyond this the oldest are dropped
+    @Value("${history.maxPendingRollups:100000}")
+    private int maxPendingRollups;
+
+    private static class Window {
+        long bucketStart;
+        LatencyHistogram histogram = new LatencyHistogram();
+        int upSamples;
+    }
+
+    private class Series {
+        final ProbeRingBuffer recent = new ProbeRingBuffer(Math.max(1, recentSamples));
+        final Map<String, Window> open = new ConcurrentHashMap<>();
+    }
+
+    private final Map<Long, Series> series = new ConcurrentHashMap<>();
+    // closed windows waiting for the next flush, oldest first
+    private final Deque<ProbeRollup> pending = new ArrayDeque<>();
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        dropped = meterRegistry.counter("history.rollups.dropped");
+    }
+
+    public void record(ProbeResult result, long timestampMs) {
+        boolean up = "UP".equals(result.getStatus());
+        Series s = series.computeIfAbsent(result.getProjectId(), id -> new Series());
+        s.recent.add(timestampMs, result.getLatencyMs(), up);
+
+        synchronized (s) {
+            RESOLUTIONS.forEach((res, width) -> {
+                long bucketStart = timestampMs - timestampMs % width;
+                Window w = s.open.get(res);
+                if (w != null && w.bucketStart != bucketStart) {
+                    close(result.getProjectId(), res, w);
+                    w = null;
+                }
+                if (w == null) {
+                    w = new Window();
+                    w.bucketStart = bucketStart;
+                    s.open.put(res, w);
+                }
+                w.histogram.record(result.getLatencyMs());
+                if (up) w.upSamples++;
+            });
+        }
+    }
+
+    public List<ProbeRingBuffer.Sample> recent(Long projectId, int limit) {
+        Series s = series.get(projectId);
+        return s == null ? List.of() : s.recent.latest(limit);
+    }
+
+    // Stored rollups in [from, to], plus the still-open window if it falls in range.
+    public List<ProbeRollup> rollups(Long projectId, String resolution, LocalDateTime from, LocalDateTime to) {
+        if (!RESOLUTIONS.containsKey(resolution)) {
+            throw new IllegalArgumentException("Unknown resolution " + resolution + " (use 1m, 1h or 1d)");
+        }
+        List<ProbeRollup> out = new ArrayList<>(rollupRepository
+                .findByProjectIdAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(projectId, resolution, from, to));
+
+        Series s = series.get(projectId);
+        if (s != null) {
+            synchronized (s) {
+                Window w = s.open.get(resolution);
+                if (w != null) {
+                    ProbeRollup live = toRollup(projectId, resolution, w);
+                    if (!live.getBucketStart().isBefore(from) && !live.getBucketStart().isAfter(to)) out.add(live);
+                }
+            }
+        }
+        return out;
+    }
+
+    @Scheduled(fixedDelayString = "${history.flushMs:60000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        // close windows that ended without a newer sample (probe interval longer than the window)
+        series.forEach((id, s) -> {
+            synchronized (s) {
+                s.open.entrySet().removeIf(en -> {
+                    if (en.getValue().bucketStart + RESOLUTIONS.get(en.getKey()) > now) return false;
+                    close(id, en.getKey(), en.getValue());
+                    return true;
+                });
+            }
+        });
+
+        List<ProbeRollup> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) return;
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (ProbeRollup r : batch) {
+            rows.add(new Object[]{r.getProjectId(), r.getResolution(), Timestamp.valueOf(r.getBucketStart()),
+                    r.getSamples(), r.getUpSamples(), r.getP50Ms(), r.getP95Ms(), r.getP99Ms(), r.getAvgMs(), r.getMaxMs()});
+        }
+        try {
+            jdbcTemplate.batchUpdate("insert into probe_rollups (project_id, resolution, bucket_start, samples, up_samples, "
+                    + "p50ms, p95ms, p99ms, avg_ms, max_ms) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    // same bucket written twice (restart mid-window): merge, percentiles conservatively
+                    + "on duplicate key update avg_ms = (avg_ms * samples + values(avg_ms) * values(samples)) / (samples + values(samples)), "
+                    + "samples = samples + values(samples), up_samples = up_samples + values(up_samples), "
+                    + "p50ms = greatest(p50ms, values(p50ms)), p95ms = greatest(p95ms, values(p95ms)), "
+                    + "p99ms = greatest(p99ms, values(p99ms)), max_ms = greatest(max_ms, values(max_ms))", rows);
+        } catch (Exception ex) {
+            // put them back in front of the newer ones; they'll go out with the next flush
+            int lost;
+            synchronized (pending) {
+                for (int i = batch.size() - 1; i >= 0; i--) pending.addFirst(batch.get(i));
+                lost = trimPending();
+            }
+            System.err.println("Probe rollup flush failed for " + rows.size() + " rows err=" + ex.getMessage()
+                    + (lost > 0 ? ", dropped the oldest " + lost : ""));
+        }
+    }
+
+    // Projects that moved to another node: store their open windows as they are and forget them.
+    // The new owner's windows for the same buckets are merged into the same rows.
+    @EventListener
+    public void onRebalance(ShardRebalancedEvent event) {
+        series.forEach((id, s) -> {
+            if (shard.owns(id)) return;
+            synchronized (s) {
+                s.open.forEach((res, w) -> close(id, res, w));
+                s.open.clear();
+            }
+            series.remove(id, s);
+        });
+    }
+
+    @Scheduled(cron = "${history.purgeCron:0 17 * * * *}")
+    public void purge() {
+        if (!shard.isLeader()) return;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update("delete from probe_rollups where resolution = '1m' and bucket_start < ?",
+                    Timestamp.valueOf(now.minusDays(retention1mDays)));
+            jdbcTemplate.update("delete from probe_rollups where resolution = '1h' and bucket_start < ?",
+                    Timestamp.valueOf(now.minusDays(retention1hDays)));
+        } catch (Exception ex) {
+            System.err.println("Probe rollup purge failed err=" + ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        // open windows are partial; store them anyway so a restart doesn't leave a gap
+        series.forEach((id, s) -> {
+            synchronized (s) {
+                s.open.forEach((res, w) -> close(id, res, w));
+                s.open.clear();
+            }
+        });
+        flush();
+    }
+
+    private void close(Long projectId, String resolution, Window w) {
+        ProbeRollup r = toRollup(projectId, resolution, w);
+        synchronized (pending) {
+            pending.addLast(r);
+            trimPending();
+        }
+    }
+
+    // caller holds the pending lock; returns how many rollups were dropped
+    private int trimPending() {
+        int lost = 0;
+        while (pending.size() > Math.max(1, maxPendingRollups)) {
+            pending.pollFirst();
+            lost++;
+        }
+        if (lost > 0) dropped.increment(lost);
+        return lost;
+    }
+
+    private ProbeRollup toRollup(Long projectId, String resolution, Window w) {
+        LatencyHistogram h = w.histogram;
+        ProbeRollup r = new ProbeRollup();
+        r.setProjectId(projectId);
+        r.setResolution(resolution);
+        r.setBucketStart(LocalDateTime.ofInstant(Instant.ofEpochMilli(w.bucketStart), ZoneId.systemDefault()));
+        r.setSamples((int) h.getCount());
+        r.setUpSamples(w.upSamples);
+        r.setP50Ms(h.percentile(50));
+        r.setP95Ms(h.percentile(95));
+        r.setP99Ms(h.percentile(99));
+        r.setAvgMs(h.mean());
+        r.setMaxMs(h.getMax());
+        return r;
+    }
+}
@@ -0,0 +1,44 @@
+package com.rohan.incidentmanager.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Last N probe samples of one project, stored column-wise in primitive arrays
+ * (no object per sample). Oldest samples are overwritten.
+ */
+public class ProbeRingBuffer {
+
+    public record Sample(long timestampMs, int latencyMs, boolean up) {}
+
+    private final long[] timestamps;
+    private final int[] latencies;
+    private final boolean[] up;
+    private int next = 0;
+    private int size = 0;
+
+    public ProbeRingBuffer(int capacity) {
+        timestamps = new long[capacity];
+        latencies = new int[capacity];
+        up = new boolean[capacity];
+    }
+
+    public synchronized void add(long timestampMs, long latencyMs, boolean isUp) {
+        timestamps[next] = timestampMs;
+        latencies[next] = (int) Math.min(latencyMs, Integer.MAX_VALUE);
+        up[next] = isUp;
+        next = (next + 1) % timestamps.length;
+        if (size < timestamps.length) size++;
+    }
+
+    // newest first
+    public synchronized List<Sample> latest(int limit) {
+        int n = Math.min(limit, size);
+        List<Sample> out = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            int idx = (next - i + timestamps.length) % timestamps.length;
+            out.add(new Sample(timestamps[idx], latencies[idx], up[idx]));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,49 @@
+package com.rohan.incidentmanager.service;
+
+import com.rohan.incidentmanager.entity.Project;
+import com.rohan.incidentmanager.repository.ProjectRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Projects with developers, lead and head fetched, keyed by project id.
+ * Misses are loaded in one batch query; ProjectService invalidates entries
+ * whenever it changes a project.
+ */
+@Service
+public class ProjectRecipientCache {
+
+    @Autowired private ProjectRepository projectRepository;
+
+    private final Map<Long, Project> cache = new ConcurrentHashMap<>();
+
+    // Load all missing ids with a single fetch-join query.
+    public void prefetch(Collection<Long> ids) {
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (!cache.containsKey(id)) missing.add(id);
+        }
+        if (missing.isEmpty()) return;
+        for (Project p : projectRepository.findWithRecipientsByIdIn(missing)) {
+            cache.put(p.getId(), p);
+        }
+    }
+
+    public Project get(Long id) {
+        Project p = cache.get(id);
+        if (p != null) return p;
+        p = projectRepository.findWithRecipientsById(id).orElse(null);
+        if (p != null) cache.put(id, p);
+        return p;
+    }
+
+    public void invalidate(Long id) {
+        if (id != null) cache.remove(id);
+    }
+}
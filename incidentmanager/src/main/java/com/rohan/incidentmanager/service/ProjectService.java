@@ -1,21 +1,36 @@
 package com.rohan.incidentmanager.service;
 
+import com.rohan.incidentmanager.dto.KeysetPage;
 import com.rohan.incidentmanager.dto.ProjectRequestDTO;
+import com.rohan.incidentmanager.dto.ProjectSummaryDTO;
 import com.rohan.incidentmanager.entity.Project;
 import com.rohan.incidentmanager.entity.Role;
 import com.rohan.incidentmanager.entity.User;
 import com.rohan.incidentmanager.repository.ProjectRepository;
 import com.rohan.incidentmanager.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class ProjectService {
 
     @Autowired private UserRepository userRepository;
     @Autowired private ProjectRepository projectRepository;
+    @Autowired private ProjectStatusStore statusStore;
+    @Autowired private ProjectRecipientCache recipientCache;
+
+    // same defaults EscalationScheduler applies to projects without their own delays
+    @Value("${escalation.leadMinutes:10}")
+    private int defaultLeadMinutes;
+
+    @Value("${escalation.ctoMinutes:15}")
+    private int defaultCtoMinutes;
 
     public Project createProject(ProjectRequestDTO dto, String requesterEmail) {
         User requester = userRepository.findByEmail(requesterEmail).orElseThrow(() -> new RuntimeException("Requester not found"));
@@ -41,21 +56,88 @@ public class ProjectService {
         p.setDescription(dto.getDescription());
         p.setHealthUrl(dto.getHealthUrl());
         if (dto.getCheckIntervalMinutes() != null) p.setCheckIntervalMinutes(dto.getCheckIntervalMinutes());
+        // the JDK HTTP client throws on a zero or negative timeout, which would read as a DOWN project
+        if (dto.getProbeConnectTimeoutMs() != null && dto.getProbeConnectTimeoutMs() <= 0) {
+            throw new RuntimeException("probeConnectTimeoutMs must be more than 0");
+        }
+        if (dto.getProbeTimeoutMs() != null && dto.getProbeTimeoutMs() <= 0) {
+            throw new RuntimeException("probeTimeoutMs must be more than 0");
+        }
+        p.setProbeConnectTimeoutMs(dto.getProbeConnectTimeoutMs());
+        p.setProbeTimeoutMs(dto.getProbeTimeoutMs());
+        if (dto.getEscalateLeadAfterMinutes() != null && dto.getEscalateLeadAfterMinutes() <= 0) {
+            throw new RuntimeException("escalateLeadAfterMinutes must be more than 0");
+        }
+        if (dto.getEscalateCtoAfterMinutes() != null && dto.getEscalateCtoAfterMinutes() <= 0) {
+            throw new RuntimeException("escalateCtoAfterMinutes must be more than 0");
+        }
+        int leadMinutes = dto.getEscalateLeadAfterMinutes() != null ? dto.getEscalateLeadAfterMinutes() : defaultLeadMinutes;
+        int ctoMinutes = dto.getEscalateCtoAfterMinutes() != null ? dto.getEscalateCtoAfterMinutes() : defaultCtoMinutes;
+        if (ctoMinutes <= leadMinutes) {
+            throw new RuntimeException("escalateCtoAfterMinutes (" + ctoMinutes + ") must be more than escalateLeadAfterMinutes (" + leadMinutes + ")");
+        }
+        p.setEscalateLeadAfterMinutes(dto.getEscalateLeadAfterMinutes());
+        p.setEscalateCtoAfterMinutes(dto.getEscalateCtoAfterMinutes());
+        if (dto.getIncidentRetentionDays() != null && dto.getIncidentRetentionDays() < 0) {
+            throw new RuntimeException("incidentRetentionDays must be 0 (keep forever) or more");
+        }
+        p.setIncidentRetentionDays(dto.getIncidentRetentionDays());
         p.setTeamLead(requester);
         p.setHead(head);
         p.setDevelopers(devs);
         p.setLastCheckedAt(LocalDateTime.now());
         p.setLastStatus("UNKNOWN");
-        return projectRepository.save(p);
+        Project saved = projectRepository.save(p);
+        recipientCache.invalidate(saved.getId());
+        return saved;
     }
 
     public List<Project> getProjectsForUser(String email) {
         User u = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
+        List<Project> list;
         if (u.getRole() == Role.LEAD) {
-            return projectRepository.findByTeamLead_Email(email);
+            list = projectRepository.findByTeamLead_Email(email);
         } else {
-            return projectRepository.findByDevelopers_Id(u.getId());
+            list = projectRepository.findByDevelopers_Id(u.getId());
         }
+        // status is written behind; show the latest probe result
+        statusStore.overlay(list);
+        return list;
+    }
+
+    // One page of getProjectsForUser as slim rows, ordered by id; afterId is the previous page's next.
+    public KeysetPage<ProjectSummaryDTO> pageForUser(String email, Long afterId, int size) {
+        User u = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
+        long after = afterId == null ? 0 : afterId;
+        // one extra row tells us whether there is a next page
+        Limit limit = Limit.of(size + 1);
+        List<ProjectSummaryDTO> rows = u.getRole() == Role.LEAD
+                ? projectRepository.findSummariesByTeamLead(email, after, limit)
+                : projectRepository.findSummariesByDeveloper(u.getId(), after, limit);
+        Long next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            next = rows.get(size - 1).getId();
+        }
+        statusStore.overlaySummaries(rows);
+        return new KeysetPage<>(rows, next);
+    }
+
+    // lead, head and developers: who gets a project's live updates and may read its history
+    public static Set<String> memberEmails(Project p) {
+        Set<String> emails = new HashSet<>();
+        if (p.getTeamLead() != null) emails.add(p.getTeamLead().getEmail());
+        if (p.getHead() != null) emails.add(p.getHead().getEmail());
+        if (p.getDevelopers() != null) {
+            for (User u : p.getDevelopers()) {
+                if (u != null) emails.add(u.getEmail());
+            }
+        }
+        return emails;
+    }
+
+    public boolean canView(Project p, String email) {
+        return email != null && memberEmails(p).contains(email);
     }
 
     public Project pauseProject(Long projectId, Long minutes, String reason, String requesterEmail) {
@@ -65,7 +147,9 @@ public class ProjectService {
 
         p.setPauseReason(reason);
         p.setPausedUntil(LocalDateTime.now().plusMinutes(minutes));
-        return projectRepository.save(p);
+        Project saved = projectRepository.save(p);
+        recipientCache.invalidate(projectId);
+        return saved;
     }
 
     public Project resumeProject(Long projectId, String requesterEmail) {
@@ -74,6 +158,8 @@ public class ProjectService {
         if (!p.getTeamLead().getId().equals(req.getId())) throw new RuntimeException("Only team lead can resume");
         p.setPausedUntil(null);
         p.setPauseReason(null);
-        return projectRepository.save(p);
+        Project saved = projectRepository.save(p);
+        recipientCache.invalidate(projectId);
+        return saved;
     }
 }
@@ -0,0 +1,153 @@
+package com.rohan.incidentmanager.service;
+
+import com.rohan.incidentmanager.dto.ProjectSummaryDTO;
+import com.rohan.incidentmanager.entity.Project;
+import com.rohan.incidentmanager.event.ProjectStatusEvent;
+import com.rohan.incidentmanager.event.ShardRebalancedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind table for probe status. Probes update memory only; rows are
+ * flushed in one JDBC batch when the status changed, or when a newer probe is
+ * more than status.checkedAtMaxLagMs ahead of the stored lastCheckedAt.
+ * Projects this node no longer owns are dropped instead of written, so a node
+ * that lost a project never overwrites what the new owner stored.
+ */
+@Service
+public class ProjectStatusStore {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ApplicationEventPublisher events;
+    @Autowired private ShardCoordinator shard;
+
+    @Value("${status.checkedAtMaxLagMs:300000}")
+    private long checkedAtMaxLagMs;
+
+    private static class Entry {
+        String status;
+        LocalDateTime checkedAt;
+        String flushedStatus;
+        LocalDateTime flushedCheckedAt;
+    }
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // Record a probe result and copy it onto the (cached) entity. The first time we see a project its
+    // entity still holds the DB values, which become the flushed state. A change of status is
+    // published as a ProjectStatusEvent.
+    public void record(Project p, String status, LocalDateTime checkedAt) {
+        String[] previous = new String[1];
+        entries.compute(p.getId(), (id, e) -> {
+            if (e == null) {
+                e = new Entry();
+                e.flushedStatus = p.getLastStatus();
+                e.flushedCheckedAt = p.getLastCheckedAt();
+            }
+            synchronized (e) {
+                previous[0] = e.status != null ? e.status : e.flushedStatus;
+                e.status = status;
+                e.checkedAt = checkedAt;
+            }
+            return e;
+        });
+        p.setLastStatus(status);
+        p.setLastCheckedAt(checkedAt);
+        if (!status.equals(previous[0])) {
+            events.publishEvent(new ProjectStatusEvent(p.getId(), status, previous[0], checkedAt));
+        }
+    }
+
+    // Copy the latest in-memory status onto entities loaded from the DB (dashboards see fresh values).
+    public void overlay(Collection<Project> projects) {
+        for (Project p : projects) {
+            Entry e = entries.get(p.getId());
+            if (e == null) continue;
+            synchronized (e) {
+                if (e.status != null) p.setLastStatus(e.status);
+                if (e.checkedAt != null) p.setLastCheckedAt(e.checkedAt);
+            }
+        }
+    }
+
+    public void overlaySummaries(Collection<ProjectSummaryDTO> rows) {
+        for (ProjectSummaryDTO row : rows) {
+            Entry e = entries.get(row.getId());
+            if (e == null) continue;
+            synchronized (e) {
+                if (e.status != null) row.setLastStatus(e.status);
+                if (e.checkedAt != null) row.setLastCheckedAt(e.checkedAt);
+            }
+        }
+    }
+
+    public String statusOf(Long projectId) {
+        Entry e = entries.get(projectId);
+        return e == null ? null : e.status;
+    }
+
+    // a project that comes back later takes its baseline from the DB again
+    @EventListener
+    public void onRebalance(ShardRebalancedEvent event) {
+        entries.keySet().removeIf(id -> !shard.owns(id));
+    }
+
+    @Scheduled(fixedDelayString = "${status.flushMs:15000}")
+    public void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        List<Runnable> commits = new ArrayList<>();
+
+        entries.forEach((id, e) -> {
+            if (!shard.owns(id)) {
+                entries.remove(id, e);
+                return;
+            }
+            synchronized (e) {
+                boolean statusChanged = e.status != null && !e.status.equals(e.flushedStatus);
+                boolean checkedAtStale = e.checkedAt != null && (e.flushedCheckedAt == null
+                        || (e.checkedAt.isAfter(e.flushedCheckedAt)
+                        && Duration.between(e.flushedCheckedAt, e.checkedAt).toMillis() >= checkedAtMaxLagMs));
+                if (!statusChanged && !checkedAtStale) return;
+
+                String status = e.status;
+                LocalDateTime checkedAt = e.checkedAt;
+                rows.add(new Object[]{status, checkedAt == null ? null : Timestamp.valueOf(checkedAt), id});
+                commits.add(() -> {
+                    synchronized (e) {
+                        e.flushedStatus = status;
+                        e.flushedCheckedAt = checkedAt;
+                    }
+                });
+            }
+        });
+        if (rows.isEmpty()) return;
+
+        try {
+            jdbcTemplate.batchUpdate("update projects set last_status = ?, last_checked_at = ? where id = ?", rows);
+            commits.forEach(Runnable::run);
+        } catch (Exception ex) {
+            // keep rows dirty; they'll go out with the next flush
+            System.err.println("Status flush failed for " + rows.size() + " projects err=" + ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,155 @@
+package com.rohan.incidentmanager.service;
+
+import com.rohan.incidentmanager.event.ShardRebalancedEvent;
+import com.rohan.incidentmanager.repository.BackendNodeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Splits project ownership between running backend nodes. Every node
+ * heartbeats a row in backend_nodes; the nodes with a fresh heartbeat form a
+ * consistent-hash ring (cluster.virtualNodes points each), and a project is
+ * probed and alerted only by the node that owns its id on the ring. When a
+ * node joins or dies only ~1/N of the projects move. The live node with the
+ * smallest id is the leader and runs cluster-wide housekeeping. Heartbeat
+ * times come from the database clock, not each node's own. A membership
+ * change is published as a ShardRebalancedEvent.
+ */
+@Service
+public class ShardCoordinator {
+
+    @Autowired private BackendNodeRepository nodeRepository;
+    @Autowired private ApplicationEventPublisher events;
+
+    @Value("${cluster.nodeId:}")
+    private String configuredNodeId;
+
+    @Value("${cluster.nodeTtlMs:30000}")
+    private long nodeTtlMs;
+
+    @Value("${cluster.virtualNodes:64}")
+    private int virtualNodes;
+
+    private String nodeId;
+    private volatile long lastHeartbeatOk = 0;
+
+    private record Ring(List<String> nodes, TreeMap<Long, String> points) {}
+
+    // empty until the first heartbeat; owns nothing until then
+    private volatile Ring ring = new Ring(List.of(), new TreeMap<>());
+
+    @PostConstruct
+    public void init() {
+        nodeId = configuredNodeId == null || configuredNodeId.isBlank() ? defaultNodeId() : configuredNodeId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${cluster.heartbeatMs:10000}", initialDelayString = "${cluster.heartbeatMs:10000}")
+    public void heartbeat() {
+        try {
+            if (nodeRepository.touch(nodeId) == 0) nodeRepository.register(nodeId);
+            lastHeartbeatOk = System.currentTimeMillis();
+
+            List<String> live = nodeRepository.findLiveNodeIds(nodeTtlMs * 1000);
+            if (!live.equals(ring.nodes())) {
+                ring = buildRing(live);
+                System.out.println("Cluster membership changed, node " + nodeId + " sees " + live);
+                events.publishEvent(new ShardRebalancedEvent(live));
+            }
+            if (isLeader()) {
+                nodeRepository.deleteStale(nodeTtlMs * 10 * 1000);
+            }
+        } catch (Exception e) {
+            // the others drop us after nodeTtlMs; owns() stops answering true at the same point
+            System.err.println("Cluster heartbeat failed for node " + nodeId + " err=" + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        // let the others take over our projects right away instead of after nodeTtlMs
+        try {
+            nodeRepository.deleteById(nodeId);
+        } catch (Exception e) {
+            System.err.println("Could not remove node " + nodeId + " err=" + e.getMessage());
+        }
+    }
+
+    public boolean owns(Long projectId) {
+        if (System.currentTimeMillis() - lastHeartbeatOk > nodeTtlMs) return false;
+        Map.Entry<Long, String> e = ownerEntry(ring, projectId);
+        return e != null && nodeId.equals(e.getValue());
+    }
+
+    public boolean isLeader() {
+        if (System.currentTimeMillis() - lastHeartbeatOk > nodeTtlMs) return false;
+        List<String> nodes = ring.nodes();
+        return !nodes.isEmpty() && nodeId.equals(nodes.get(0));
+    }
+
+    // live nodes on the ring, this one included
+    public int nodeCount() {
+        return ring.nodes().size();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private Map.Entry<Long, String> ownerEntry(Ring r, Long projectId) {
+        if (r.points().isEmpty()) return null;
+        Map.Entry<Long, String> e = r.points().ceilingEntry(mix(projectId));
+        return e != null ? e : r.points().firstEntry();
+    }
+
+    private Ring buildRing(List<String> nodes) {
+        TreeMap<Long, String> points = new TreeMap<>();
+        for (String n : nodes) {
+            for (int i = 0; i < Math.max(1, virtualNodes); i++) {
+                points.put(hash(n + "#" + i), n);
+            }
+        }
+        return new Ring(nodes, points);
+    }
+
+    // FNV-1a, then mixed so nearby strings land far apart
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
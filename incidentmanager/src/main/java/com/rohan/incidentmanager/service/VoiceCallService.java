@@ -3,16 +3,36 @@ package com.rohan.incidentmanager.service;
 import com.rohan.incidentmanager.entity.Incident;
 import com.rohan.incidentmanager.entity.Project;
 import com.rohan.incidentmanager.entity.User;
+import com.rohan.incidentmanager.util.RateLimiter;
 import com.twilio.Twilio;
 import com.twilio.rest.api.v2010.account.Call;
 import com.twilio.type.PhoneNumber;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,12 +47,68 @@ public class VoiceCallService {
     @Value("${twilio.fromNumber:}")
     private String fromNumber;
 
+    // how many calls of one page go out at the same time
+    @Value("${voice.concurrency:8}")
+    private int concurrency;
+
+    @Value("${voice.callTimeoutMs:10000}")
+    private long callTimeoutMs;
+
+    // Twilio's outbound calls-per-second limit for the account; 0 = no limit
+    @Value("${voice.callsPerSecond:1}")
+    private double callsPerSecond;
+
+    // calls that may start at once after an idle period before the spacing kicks in; 0 = voice.concurrency
+    @Value("${voice.callBurst:0}")
+    private int callBurst;
+
+    // Places one outbound call; Twilio by default, swapped for a local stub in tests.
+    public interface CallPlacer {
+        void place(String to, String from, URI twimlUrl) throws Exception;
+    }
+
+    private CallPlacer callPlacer = (to, from, twimlUrl) ->
+            Call.creator(new PhoneNumber(to), new PhoneNumber(from), twimlUrl).create();
+
+    @Autowired private MeterRegistry meterRegistry;
+
+    private ExecutorService callPool;
+    private RateLimiter callLimiter;
+    private Timer callOk;
+    private Timer callFailed;
+    private Counter callTimeouts;
+    private Timer firstPage;
+    private Timer lastPage;
+
     @PostConstruct
     public void init() {
+        callOk = meterRegistry.timer("voice.call.latency", "outcome", "success");
+        callFailed = meterRegistry.timer("voice.call.latency", "outcome", "error");
+        // page calls still being placed at the deadline; they may or may not have gone out
+        callTimeouts = meterRegistry.counter("voice.call.timeouts");
+        // incident detected -> first / last developer call placed
+        firstPage = meterRegistry.timer("incident.page.latency", "page", "first");
+        lastPage = meterRegistry.timer("incident.page.latency", "page", "last");
         if (accountSid != null && !accountSid.isBlank()
                 && authToken != null && !authToken.isBlank()) {
             Twilio.init(accountSid, authToken);
         }
+        callLimiter = new RateLimiter(callsPerSecond, callBurst > 0 ? callBurst : Math.max(1, concurrency));
+        AtomicInteger seq = new AtomicInteger();
+        callPool = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "voice-call-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callPool.shutdownNow();
+    }
+
+    void setCallPlacer(CallPlacer callPlacer) {
+        this.callPlacer = callPlacer;
     }
 
     public boolean isConfigured() {
@@ -49,14 +125,30 @@ public class VoiceCallService {
         return n;
     }
 
-    // Utility: call a single E.164 number (+1..., +91..., etc.)
-    public void callNumber(String toNumber, String message) {
-        if (!isConfigured() || toNumber == null || toNumber.isBlank()) return;
+    // Utility: call a single E.164 number (+1..., +91..., etc.); true if the call was placed
+    public boolean callNumber(String toNumber, String message) {
+        return placeCall(toNumber, message);
+    }
+
+    private boolean placeCall(String toNumber, String message) {
+        try {
+            callLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Voice call to " + toNumber + " interrupted");
+            return false;
+        }
+        return dial(toNumber, message);
+    }
+
+    // places the call; the caller already took a permit from callLimiter
+    private boolean dial(String toNumber, String message) {
+        if (!isConfigured() || toNumber == null || toNumber.isBlank()) return false;
         try {
             String to = normalize(toNumber);
             if (to == null || to.isBlank()) {
                 System.err.println("Voice call skipped: empty/invalid toNumber");
-                return;
+                return false;
             }
             // keep under ~30s (roughly 80–100 words)
             String trimmed = message == null ? "" : message.trim();
@@ -65,33 +157,137 @@ public class VoiceCallService {
             String twimlUrl = "https://twimlets.com/message?Message%5B0%5D=" + urlEncode(safe);
 
             System.out.println("Twilio call -> to=" + to + " from=" + fromNumber + " msgChars=" + safe.length());
-            Call.creator(new PhoneNumber(to), new PhoneNumber(fromNumber), URI.create(twimlUrl)).create();
+            long start = System.nanoTime();
+            try {
+                callPlacer.place(to, fromNumber, URI.create(twimlUrl));
+            } catch (Exception e) {
+                callFailed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+            callOk.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return true;
         } catch (Exception e) {
             System.err.println("Voice call failed to " + toNumber + " err=" + e.getMessage());
+            return false;
         }
     }
 
+    // Call every number in parallel (voice.concurrency at a time), each call bounded by voice.callTimeoutMs.
+    // Past the first voice.callBurst calls, calls are spaced by voice.callsPerSecond before they are
+    // submitted, so waiting for the rate limit never counts against the timeout. A call that was already
+    // being placed at the deadline may have gone out, so it counts as unknown rather than failed.
+    public PageReport callAll(List<String> numbers, String message, LocalDateTime detectedAt) {
+        if (numbers.isEmpty()) return new PageReport(0, 0, 0, -1, Set.of());
+        long detectedMs = detectedAt == null ? System.currentTimeMillis()
+                : detectedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        List<Future<Long>> futures = new ArrayList<>();
+        // indexes of the calls a pool thread started dialing
+        Set<Integer> started = ConcurrentHashMap.newKeySet();
+        int notSubmitted = 0;
+        for (String n : numbers) {
+            try {
+                callLimiter.acquire();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                notSubmitted = numbers.size() - futures.size();
+                break;
+            }
+            int idx = futures.size();
+            futures.add(callPool.submit(() -> {
+                started.add(idx);
+                return dial(n, message) ? System.currentTimeMillis() : -1L;
+            }));
+        }
+
+        // calls beyond the concurrency limit wait for a free slot, so the deadline grows per wave
+        int waves = (numbers.size() + Math.max(1, concurrency) - 1) / Math.max(1, concurrency);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(callTimeoutMs * waves);
+        int placed = 0, failed = notSubmitted, unknown = 0;
+        long firstPagedAt = -1, lastPagedAt = -1;
+        Set<String> settled = new LinkedHashSet<>();
+        boolean expired = false;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<Long> f = futures.get(i);
+            try {
+                long at = f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (at > 0) {
+                    placed++;
+                    settled.add(numbers.get(i));
+                    firstPagedAt = firstPagedAt < 0 ? at : Math.min(firstPagedAt, at);
+                    lastPagedAt = Math.max(lastPagedAt, at);
+                } else {
+                    failed++;
+                }
+            } catch (TimeoutException | InterruptedException | CancellationException e) {
+                if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                if (!expired) {
+                    // last first: a queued call must not get the pool thread freed by cancelling a hung one
+                    for (int j = futures.size() - 1; j >= i; j--) futures.get(j).cancel(true);
+                    expired = true;
+                }
+                // still queued: never dialed, safe to retry
+                if (!started.contains(i)) {
+                    failed++;
+                    continue;
+                }
+                unknown++;
+                settled.add(numbers.get(i));
+                callTimeouts.increment();
+                System.err.println("Voice call to " + numbers.get(i) + " still being placed at the deadline, "
+                        + "it may have gone out; not retried");
+            } catch (ExecutionException ee) {
+                failed++;
+            }
+        }
+        long latency = lastPagedAt > 0 ? lastPagedAt - detectedMs : -1;
+        if (detectedAt != null && firstPagedAt > 0) {
+            firstPage.record(firstPagedAt - detectedMs, TimeUnit.MILLISECONDS);
+            lastPage.record(latency, TimeUnit.MILLISECONDS);
+        }
+        return new PageReport(placed, failed, unknown, latency, settled);
+    }
+
     // Convenience call helpers by role list
-    public void callDevelopers(Project p, String message) {
+    public PageReport callDevelopers(Project p, String message) {
+        return callDevelopers(p, message, null);
+    }
+
+    public PageReport callDevelopers(Project p, String message, LocalDateTime detectedAt) {
+        return callDevelopers(p, message, detectedAt, Set.of());
+    }
+
+    // skip: numbers an earlier attempt of the same alert already reached
+    public PageReport callDevelopers(Project p, String message, LocalDateTime detectedAt, Set<String> skip) {
         List<String> nums = p.getDevelopers() == null ? List.of() :
                 p.getDevelopers().stream()
                         .map(User::getPhone)
                         .filter(Objects::nonNull)
                         .filter(s -> !s.isBlank())
+                        .filter(s -> !skip.contains(s))
                         .collect(Collectors.toList());
-        nums.forEach(n -> callNumber(n, message));
+        PageReport report = callAll(nums, message, detectedAt);
+        if (!nums.isEmpty()) {
+            System.out.println("Paged developers for project=" + p.getProjectName() + " placed=" + report.getPlaced()
+                    + " failed=" + report.getFailed() + " unknown=" + report.getUnknown()
+                    + " detectionToLastPageMs=" + report.getLastPageLatencyMs());
+        }
+        return report;
     }
 
-    public void callLead(Project p, String message) {
+    // false only if a call was tried and failed; nobody to call is not worth a retry
+    public boolean callLead(Project p, String message) {
         String phone = p.getTeamLead() != null ? p.getTeamLead().getPhone() : null;
-        if (phone != null && !phone.isBlank()) callNumber(phone, message);
-        else System.err.println("Lead call skipped: no phone configured");
+        if (phone != null && !phone.isBlank()) return callNumber(phone, message);
+        System.err.println("Lead call skipped: no phone configured");
+        return true;
     }
 
-    public void callCTO(Project p, String message) {
+    public boolean callCTO(Project p, String message) {
         String phone = p.getHead() != null ? p.getHead().getPhone() : null;
-        if (phone != null && !phone.isBlank()) callNumber(phone, message);
-        else System.err.println("CTO call skipped: no phone configured");
+        if (phone != null && !phone.isBlank()) return callNumber(phone, message);
+        System.err.println("CTO call skipped: no phone configured");
+        return true;
     }
 
     private String urlEncode(String s) {
@@ -0,0 +1,59 @@
+package com.rohan.incidentmanager.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Text with {name} placeholders, split into literal parts once when it is
+ * compiled. The placeholder names are declared at compile time, in the order
+ * render() takes their values; a placeholder that isn't declared fails at
+ * compile time instead of showing up in a sent mail. null values render as
+ * "null", like String.format does.
+ */
+public final class MailTemplate {
+
+    private final String[] literals; // one more than slots
+    private final int[] slots;       // value index of each placeholder
+    private final int declared;
+    private final int literalLength;
+
+    private MailTemplate(String[] literals, int[] slots, int declared) {
+        this.literals = literals;
+        this.slots = slots;
+        this.declared = declared;
+        this.literalLength = Arrays.stream(literals).mapToInt(String::length).sum();
+    }
+
+    public static MailTemplate compile(String source, String... names) {
+        List<String> declaredNames = Arrays.asList(names);
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int from = 0;
+        while (true) {
+            int open = source.indexOf('{', from);
+            int close = open < 0 ? -1 : source.indexOf('}', open);
+            if (close < 0) break;
+            String name = source.substring(open + 1, close);
+            int slot = declaredNames.indexOf(name);
+            if (slot < 0) throw new IllegalArgumentException("Undeclared placeholder {" + name + "} in mail template");
+            literals.add(source.substring(from, open));
+            slots.add(slot);
+            from = close + 1;
+        }
+        literals.add(source.substring(from));
+        return new MailTemplate(literals.toArray(new String[0]), slots.stream().mapToInt(Integer::intValue).toArray(), names.length);
+    }
+
+    // values in the order the names were declared
+    public String render(Object... values) {
+        if (values.length != declared) {
+            throw new IllegalArgumentException("Mail template takes " + declared + " values, got " + values.length);
+        }
+        StringBuilder out = new StringBuilder(literalLength + 32 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]).append(values[slots[i]]);
+        }
+        return out.append(literals[slots.length]).toString();
+    }
+}
@@ -0,0 +1,39 @@
+package com.rohan.incidentmanager.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking token bucket: up to burst permits go out at once after an idle
+ * period, after that callers are spaced 1/permitsPerSecond apart. A rate of
+ * 0 or less never blocks.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    // when the next permit is free; earlier than now while a burst is available
+    private long nextFree;
+
+    // a burst of one second's worth of permits
+    public RateLimiter(double permitsPerSecond) {
+        this(permitsPerSecond, (int) Math.max(1, (long) permitsPerSecond));
+    }
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this.intervalNanos = permitsPerSecond <= 0 ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = (Math.max(1, burst) - 1L) * intervalNanos;
+        this.nextFree = System.nanoTime() - burstNanos;
+    }
+
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) return;
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            nextFree = Math.max(nextFree, now - burstNanos);
+            wait = nextFree - now;
+            nextFree += intervalNanos;
+        }
+        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+    }
+}
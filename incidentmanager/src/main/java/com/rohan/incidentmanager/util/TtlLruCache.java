@@ -0,0 +1,53 @@
+package com.rohan.incidentmanager.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small bounded cache: least recently used entries are evicted once
+ * maxEntries is reached, and every entry carries its own expiry time.
+ */
+public class TtlLruCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAtMs) {}
+
+    private final int maxEntries;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    public TtlLruCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > TtlLruCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> e = map.get(key);
+        if (e == null) return null;
+        if (e.expiresAtMs() <= System.currentTimeMillis()) {
+            map.remove(key);
+            return null;
+        }
+        return e.value();
+    }
+
+    public synchronized void put(K key, V value, long ttlMs) {
+        if (ttlMs <= 0) return;
+        map.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMs));
+    }
+
+    public synchronized void invalidate(K key) {
+        map.remove(key);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+}
@@ -0,0 +1,52 @@
+-- Schema of the last release before Flyway, as Hibernate created it with ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and
+-- skip it, so it must not change: later schema changes go in V2 onwards.
+
+create table users (
+    id bigint not null auto_increment,
+    name varchar(255),
+    email varchar(255) not null,
+    phone varchar(255),
+    password varchar(255),
+    role enum ('CTO','DEV','LEAD'),
+    verified bit not null,
+    organization_name varchar(255),
+    primary key (id),
+    constraint uk_users_email unique (email)
+) engine=InnoDB;
+
+create table projects (
+    id bigint not null auto_increment,
+    project_name varchar(255),
+    description varchar(255),
+    health_url varchar(255),
+    check_interval_minutes integer,
+    team_lead_id bigint,
+    head_id bigint,
+    paused_until datetime(6),
+    pause_reason varchar(255),
+    last_status varchar(255),
+    last_checked_at datetime(6),
+    primary key (id),
+    constraint fk_projects_team_lead foreign key (team_lead_id) references users (id),
+    constraint fk_projects_head foreign key (head_id) references users (id)
+) engine=InnoDB;
+
+create table project_developers (
+    project_id bigint not null,
+    user_id bigint not null,
+    constraint fk_project_developers_project foreign key (project_id) references projects (id),
+    constraint fk_project_developers_user foreign key (user_id) references users (id)
+) engine=InnoDB;
+
+create table incidents (
+    id bigint not null auto_increment,
+    project_id bigint,
+    reason varchar(255),
+    created_at datetime(6),
+    acknowledged bit not null,
+    escalation_level integer not null,
+    last_escalation_at datetime(6),
+    primary key (id),
+    constraint fk_incidents_project foreign key (project_id) references projects (id)
+) engine=InnoDB;
@@ -0,0 +1,69 @@
+-- Columns and tables added since the baseline release.
+
+-- per-project probe timeouts and escalation delays; null uses the probe.* / escalation.* defaults
+alter table projects add column probe_connect_timeout_ms integer;
+alter table projects add column probe_timeout_ms integer;
+alter table projects add column escalate_lead_after_minutes integer;
+alter table projects add column escalate_cto_after_minutes integer;
+
+-- resolution time, the one-active-incident-per-project key (IncidentService.backfillActiveKeys
+-- fills it for incidents open at upgrade) and the optimistic lock version
+alter table incidents add column resolved_at datetime(6);
+alter table incidents add column active_key bigint;
+alter table incidents add column version bigint not null default 0;
+alter table incidents add constraint uk_incidents_active_key unique (active_key);
+
+create table alert_jobs (
+    id bigint not null auto_increment,
+    project_id bigint,
+    incident_id bigint,
+    type enum ('ESCALATION_CTO','ESCALATION_LEAD','NEW_INCIDENT','RESOLVED'),
+    status varchar(255),
+    voice_sent bit not null,
+    mail_sent bit not null,
+    attempts integer not null,
+    last_error varchar(255),
+    created_at datetime(6),
+    processed_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table probe_rollups (
+    id bigint not null auto_increment,
+    project_id bigint,
+    resolution varchar(4),
+    bucket_start datetime(6),
+    samples integer not null,
+    up_samples integer not null,
+    p50ms bigint not null,
+    p95ms bigint not null,
+    p99ms bigint not null,
+    avg_ms bigint not null,
+    max_ms bigint not null,
+    primary key (id),
+    constraint uk_probe_rollups_bucket unique (project_id, resolution, bucket_start)
+) engine=InnoDB;
+
+create table backend_nodes (
+    node_id varchar(100) not null,
+    started_at datetime(6),
+    last_heartbeat datetime(6),
+    primary key (node_id)
+) engine=InnoDB;
+
+create table revoked_tokens (
+    token_hash varchar(64) not null,
+    revoked_at datetime(6),
+    expires_at datetime(6),
+    primary key (token_hash)
+) engine=InnoDB;
+
+create index idx_revoked_tokens_revoked_at on revoked_tokens (revoked_at);
+
+create table live_events (
+    id bigint not null auto_increment,
+    origin_node varchar(100),
+    payload varchar(2000),
+    created_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,22 @@
+-- Indexes for the queries that run on every tick or dashboard load.
+
+-- open incident of a project (findFirstByProjectAndAcknowledgedFalseOrderByCreatedAtDesc).
+-- The incident history pages by id and is served by the project_id foreign key index, which
+-- already ends in the primary key; all but one incident of a project are closed, so a status
+-- filter hardly narrows it.
+create index idx_incidents_project_ack_created on incidents (project_id, acknowledged, created_at);
+
+-- active incidents of all projects for the tick snapshot and escalation reconcile (findAllActive)
+create index idx_incidents_ack_created on incidents (acknowledged, created_at);
+
+-- projects of a developer (findByDevelopers_Id, /my/page) and developers of a project (recipient fetch)
+create index idx_project_developers_user on project_developers (user_id, project_id);
+create index idx_project_developers_project on project_developers (project_id, user_id);
+
+-- pending alert jobs in id order (findTop500ByStatusAndIdGreaterThanOrderByIdAsc)
+create index idx_alert_jobs_status on alert_jobs (status, id);
+
+-- retention deletes
+create index idx_probe_rollups_resolution_bucket on probe_rollups (resolution, bucket_start);
+create index idx_live_events_created on live_events (created_at);
+create index idx_revoked_tokens_expires on revoked_tokens (expires_at);
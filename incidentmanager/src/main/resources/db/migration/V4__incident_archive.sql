@@ -0,0 +1,27 @@
+-- Closed incidents past their project's retention are moved here in small batches (IncidentArchiver).
+-- Rows keep their incident id, so history pages continue from incidents into the archive by id.
+
+-- per-project retention in days; null uses incidents.archive.retentionDays, 0 keeps incidents forever
+alter table projects add column incident_retention_days integer;
+
+create table incidents_archive (
+    id bigint not null,
+    project_id bigint,
+    reason varchar(255),
+    created_at datetime(6),
+    acknowledged bit not null,
+    escalation_level integer not null,
+    last_escalation_at datetime(6),
+    resolved_at datetime(6),
+    archived_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+-- history of one project, newest first
+create index idx_incidents_archive_project on incidents_archive (project_id, id);
+
+-- closed incidents by resolution time, for picking the next batch to archive
+create index idx_incidents_ack_resolved on incidents (acknowledged, resolved_at);
+
+-- incidents closed before resolved_at existed: treat them as resolved at their last escalation (or opening)
+update incidents set resolved_at = coalesce(last_escalation_at, created_at) where acknowledged = true and resolved_at is null;
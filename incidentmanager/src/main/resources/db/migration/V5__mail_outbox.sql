@@ -0,0 +1,21 @@
+-- Outbound alert mails. AlertService only inserts a row; MailDeliveryService sends due rows in
+-- batches over pooled SMTP connections and retries failures with backoff.
+create table mail_outbox (
+    id bigint not null auto_increment,
+    to_addresses varchar(2000),
+    cc_addresses varchar(2000),
+    subject varchar(255),
+    body mediumtext,
+    status varchar(255),
+    attempts integer not null,
+    next_attempt_at datetime(6),
+    claim_token varchar(36),
+    last_error varchar(255),
+    created_at datetime(6),
+    sent_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+-- due rows in id order (findDue), and the retention delete
+create index idx_mail_outbox_status_due on mail_outbox (status, next_attempt_at, id);
+create index idx_mail_outbox_created on mail_outbox (created_at);
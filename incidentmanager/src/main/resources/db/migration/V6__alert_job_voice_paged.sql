@@ -0,0 +1,2 @@
+-- numbers an alert job already reached, so a retry after a failed call only calls the others
+alter table alert_jobs add column voice_paged varchar(4000);
@@ -0,0 +1,138 @@
+package com.rohan.incidentmanager.service;
+
+import com.rohan.incidentmanager.entity.Project;
+import com.rohan.incidentmanager.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoiceCallServiceTest {
+
+    private static final long STUB_LATENCY_MS = 300;
+
+    private VoiceCallService service;
+
+    private VoiceCallService newService(int concurrency, long callTimeoutMs, VoiceCallService.CallPlacer stub) {
+        return newService(concurrency, callTimeoutMs, 0, 0, stub);
+    }
+
+    private VoiceCallService newService(int concurrency, long callTimeoutMs, double callsPerSecond, int callBurst,
+                                        VoiceCallService.CallPlacer stub) {
+        VoiceCallService s = new VoiceCallService();
+        // fake credentials so isConfigured() is true; Twilio.init is harmless without network
+        ReflectionTestUtils.setField(s, "accountSid", "AC_test");
+        ReflectionTestUtils.setField(s, "authToken", "token");
+        ReflectionTestUtils.setField(s, "fromNumber", "+15550000000");
+        ReflectionTestUtils.setField(s, "concurrency", concurrency);
+        ReflectionTestUtils.setField(s, "callTimeoutMs", callTimeoutMs);
+        ReflectionTestUtils.setField(s, "callsPerSecond", callsPerSecond);
+        ReflectionTestUtils.setField(s, "callBurst", callBurst);
+        ReflectionTestUtils.setField(s, "meterRegistry", new SimpleMeterRegistry());
+        s.init();
+        s.setCallPlacer(stub);
+        return s;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) service.shutdown();
+    }
+
+    private Project teamOf(int size) {
+        List<User> devs = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            User u = new User();
+            u.setPhone("+1555000" + String.format("%04d", i));
+            devs.add(u);
+        }
+        Project p = new Project();
+        p.setProjectName("checkout");
+        p.setDevelopers(devs);
+        return p;
+    }
+
+    @Test
+    void pagesWholeTeamInAboutOneCallLatency() {
+        Set<String> called = ConcurrentHashMap.newKeySet();
+        service = newService(12, 5000, (to, from, twiml) -> {
+            Thread.sleep(STUB_LATENCY_MS); // Twilio API round trip
+            called.add(to);
+        });
+
+        LocalDateTime detectedAt = LocalDateTime.now();
+        PageReport report = service.callDevelopers(teamOf(12), "Alert. checkout is down.", detectedAt);
+
+        assertEquals(12, report.getPlaced());
+        assertEquals(0, report.getFailed());
+        assertEquals(12, called.size());
+        // sequential paging would take 12 x 300ms; in parallel the last page lands after about one call
+        assertTrue(report.getLastPageLatencyMs() < STUB_LATENCY_MS * 4,
+                "last page after " + report.getLastPageLatencyMs() + "ms");
+    }
+
+    @Test
+    void hungCallTimesOutWithoutHoldingBackOthers() {
+        service = newService(4, 500, (to, from, twiml) -> {
+            if (to.endsWith("0000")) Thread.sleep(10_000); // this number never answers
+            else Thread.sleep(50);
+        });
+
+        long start = System.currentTimeMillis();
+        PageReport report = service.callDevelopers(teamOf(4), "Alert.", LocalDateTime.now());
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(3, report.getPlaced());
+        // the hung call was being placed when it timed out, so it may have gone out: unknown, not retried
+        assertEquals(0, report.getFailed());
+        assertEquals(1, report.getUnknown());
+        assertTrue(report.getSettled().contains("+15550000000"));
+        assertTrue(elapsed < 2000, "took " + elapsed + "ms");
+    }
+
+    @Test
+    void rateLimitWaitDoesNotCountAgainstCallTimeout() {
+        Set<String> called = ConcurrentHashMap.newKeySet();
+        // 5 calls/s: a burst of 5, then one every 200ms, so the 12th call starts ~1.4s in, well past the 500ms timeout
+        service = newService(12, 500, 5, 5, (to, from, twiml) -> {
+            Thread.sleep(50);
+            called.add(to);
+        });
+
+        long start = System.currentTimeMillis();
+        PageReport report = service.callDevelopers(teamOf(12), "Alert.", LocalDateTime.now());
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(12, report.getPlaced());
+        assertEquals(0, report.getFailed());
+        assertEquals(12, called.size());
+        assertTrue(elapsed >= 1200, "limiter not applied, took " + elapsed + "ms");
+    }
+
+    @Test
+    void defaultBurstPagesWholeTeamAtOneCallPerSecond() {
+        Set<String> called = ConcurrentHashMap.newKeySet();
+        // Twilio's default 1 call/s; the burst defaults to voice.concurrency, so the team is not paged one per second
+        service = newService(12, 5000, 1, 0, (to, from, twiml) -> {
+            Thread.sleep(50);
+            called.add(to);
+        });
+
+        long start = System.currentTimeMillis();
+        PageReport report = service.callDevelopers(teamOf(12), "Alert.", LocalDateTime.now());
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(12, report.getPlaced());
+        assertEquals(12, called.size());
+        assertTrue(elapsed < 1000, "paged one by one, took " + elapsed + "ms");
+    }
+}